@@ -0,0 +1,108 @@
+/*
+ * Copyright 2022 HAVAH Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.havah.contract.benchmark;
+
+import io.havah.contract.test.StorageProfiler;
+import io.havah.contract.test.StorageStats;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.IntConsumer;
+
+/**
+ * Collects the results of a benchmark class and writes them as a JSON array to
+ * {@code <benchmark.output>/<name>.json}. Each result has the form:
+ * <pre>
+ * {"benchmark":"transfer","params":{"holders":100},"operations":100,"hostNanosPerOp":81234.0,
+ *  "getsPerOp":2.0,"setsPerOp":2.0,"bytesReadPerOp":20.0,"bytesWrittenPerOp":20.0,"eventsPerOp":1.0}
+ * </pre>
+ * The host time is measured on the emulator with the instrumentation enabled,
+ * so it is only meaningful relative to other results of the same run.
+ */
+public class BenchmarkReport {
+    private final String name;
+    private final List<String> results = new ArrayList<>();
+
+    public BenchmarkReport(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Returns the JSON object of the given key and value pairs.
+     */
+    public static String params(Object... keyValues) {
+        StringBuilder sb = new StringBuilder("{");
+        for (int i = 0; i < keyValues.length; i += 2) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append('"').append(keyValues[i]).append("\":");
+            Object value = keyValues[i + 1];
+            if (value instanceof Number || value instanceof Boolean) {
+                sb.append(value);
+            } else {
+                sb.append('"').append(value).append('"');
+            }
+        }
+        return sb.append('}').toString();
+    }
+
+    /**
+     * Runs `operation` for each index below `operations`, and records the host time and
+     * the storage stats of the invocations of `method` made through `profiler`.
+     */
+    public void measure(String benchmark, String params, StorageProfiler profiler, String method,
+                        int operations, IntConsumer operation) {
+        profiler.reset();
+        long start = System.nanoTime();
+        for (int i = 0; i < operations; i++) {
+            operation.accept(i);
+        }
+        long elapsed = System.nanoTime() - start;
+
+        int calls = profiler.getCallCount(method);
+        if (calls != operations) {
+            throw new IllegalStateException(method + " was invoked " + calls + " times, expected " + operations);
+        }
+        StorageStats total = profiler.getTotalStats(method);
+        results.add("{\"benchmark\":\"" + benchmark + "\"" +
+                ",\"params\":" + params +
+                ",\"operations\":" + operations +
+                ",\"hostNanosPerOp\":" + perOp(elapsed, operations) +
+                ",\"getsPerOp\":" + perOp(total.getGets(), operations) +
+                ",\"setsPerOp\":" + perOp(total.getSets(), operations) +
+                ",\"bytesReadPerOp\":" + perOp(total.getBytesRead(), operations) +
+                ",\"bytesWrittenPerOp\":" + perOp(total.getBytesWritten(), operations) +
+                ",\"eventsPerOp\":" + perOp(total.getEvents(), operations) + "}");
+    }
+
+    private static String perOp(long value, int operations) {
+        return String.format(Locale.ROOT, "%.1f", (double) value / operations);
+    }
+
+    public void write() throws IOException {
+        Path dir = Path.of(System.getProperty("benchmark.output", "build/benchmarks"));
+        Files.createDirectories(dir);
+        String json = "[\n" + String.join(",\n", results) + "\n]\n";
+        Files.write(dir.resolve(name + ".json"), json.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2022 HAVAH Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.havah.contract.benchmark;
+
+import com.iconloop.score.test.Account;
+import com.iconloop.score.test.Score;
+import com.iconloop.score.test.ServiceManager;
+import com.iconloop.score.test.TestBase;
+import io.havah.contract.test.StorageProfiler;
+import io.havah.contract.token.hsp1155.HSP1155MintBurn;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.math.BigInteger;
+
+import static io.havah.contract.benchmark.BenchmarkReport.params;
+
+public class HSP1155Benchmark extends TestBase {
+    private static final ServiceManager sm = getServiceManager();
+    private static final Account owner = sm.createAccount();
+    private static final BenchmarkReport report = new BenchmarkReport("hsp1155");
+    private static final BigInteger supply = BigInteger.valueOf(1000000);
+
+    public static class HSP1155BenchmarkToken extends HSP1155MintBurn {
+    }
+
+    @AfterAll
+    static void writeReport() throws IOException {
+        report.write();
+    }
+
+    private static Score deploy() throws Exception {
+        Score tokenScore = sm.deploy(owner, HSP1155BenchmarkToken.class);
+        tokenScore.invoke(owner, "setBaseURI", "https://craft.network/{id}.json");
+        return tokenScore;
+    }
+
+    private static BigInteger id(int value) {
+        return BigInteger.valueOf(value + 1);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {100, 1000})
+    void mint(int types) throws Exception {
+        Score tokenScore = deploy();
+        var profiler = new StorageProfiler(tokenScore);
+        report.measure("mint", params("types", types, "uri", "base"), profiler, "mint", types, i ->
+                profiler.invoke(owner, "mint", id(i), supply, ""));
+
+        tokenScore = deploy();
+        var uriProfiler = new StorageProfiler(tokenScore);
+        report.measure("mint", params("types", types, "uri", "token"), uriProfiler, "mint", types, i ->
+                uriProfiler.invoke(owner, "mint", id(i), supply, "https://craft.network/" + id(i) + ".json"));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 100})
+    void safeBatchTransferFrom(int size) throws Exception {
+        Score tokenScore = deploy();
+        for (int i = 0; i < 100; i++) {
+            tokenScore.invoke(owner, "mint", id(i), supply, "");
+        }
+        var profiler = new StorageProfiler(tokenScore);
+        var alice = sm.createAccount();
+        BigInteger[] ids = new BigInteger[size];
+        BigInteger[] values = new BigInteger[size];
+        for (int i = 0; i < size; i++) {
+            ids[i] = id(i);
+            values[i] = BigInteger.ONE;
+        }
+
+        report.measure("safeBatchTransferFrom", params("size", size), profiler, "safeBatchTransferFrom", 20, i ->
+                profiler.invoke(owner, "safeBatchTransferFrom", owner.getAddress(), alice.getAddress(), ids, values, new byte[0]));
+        report.measure("safeTransferFrom", params("size", size), profiler, "safeTransferFrom", 20, i ->
+                profiler.invoke(owner, "safeTransferFrom", owner.getAddress(), alice.getAddress(), ids[i % size], BigInteger.ONE, new byte[0]));
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2022 HAVAH Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.havah.contract.benchmark;
+
+import com.iconloop.score.test.Account;
+import com.iconloop.score.test.Score;
+import com.iconloop.score.test.ServiceManager;
+import com.iconloop.score.test.TestBase;
+import io.havah.contract.test.StorageProfiler;
+import io.havah.contract.token.hsp1363.HSP1363Basic;
+import io.havah.contract.token.hsp1363.HSP1363Receiver;
+import io.havah.contract.token.hsp1363.HSP1363Spender;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import score.Address;
+import score.Context;
+
+import java.io.IOException;
+import java.math.BigInteger;
+
+import static io.havah.contract.benchmark.BenchmarkReport.params;
+
+public class HSP1363Benchmark extends TestBase {
+    private static final ServiceManager sm = getServiceManager();
+    private static final Account owner = sm.createAccount();
+    private static final BenchmarkReport report = new BenchmarkReport("hsp1363");
+
+    public static class HSP1363BenchmarkToken extends HSP1363Basic {
+        public HSP1363BenchmarkToken(String _name, String _symbol, int _decimals, BigInteger _totalSupply) {
+            super(_name, _symbol, _decimals);
+            _mint(Context.getCaller(), _totalSupply);
+        }
+    }
+
+    public static class BenchmarkReceiver implements HSP1363Receiver, HSP1363Spender {
+        @Override
+        public boolean onTransferReceived(Address _operator, Address _from, BigInteger _value, byte[] _data) {
+            return true;
+        }
+
+        @Override
+        public boolean onApprovalReceived(Address _owner, BigInteger _value, byte[] _data) {
+            return true;
+        }
+    }
+
+    @AfterAll
+    static void writeReport() throws IOException {
+        report.write();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 32, 1024})
+    void transferAndCall(int dataLength) throws Exception {
+        Score tokenScore = sm.deploy(owner, HSP1363BenchmarkToken.class, "BenchmarkToken", "BMT", 18, BigInteger.TEN.pow(30));
+        Score receiverScore = sm.deploy(owner, BenchmarkReceiver.class);
+        var profiler = new StorageProfiler(tokenScore);
+        byte[] data = new byte[dataLength];
+
+        report.measure("transferAndCall", params("dataLength", dataLength), profiler, "transferAndCall", 100, i ->
+                profiler.invoke(owner, "transferAndCall", receiverScore.getAddress(), BigInteger.ONE, data));
+        report.measure("approveAndCall", params("dataLength", dataLength), profiler, "approveAndCall", 100, i ->
+                profiler.invoke(owner, "approveAndCall", receiverScore.getAddress(), BigInteger.valueOf(i + 1), data));
+    }
+}
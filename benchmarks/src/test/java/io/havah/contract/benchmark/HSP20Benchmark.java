@@ -0,0 +1,143 @@
+/*
+ * Copyright 2022 HAVAH Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.havah.contract.benchmark;
+
+import com.iconloop.score.test.Account;
+import com.iconloop.score.test.Score;
+import com.iconloop.score.test.ServiceManager;
+import com.iconloop.score.test.TestBase;
+import io.havah.contract.test.StorageProfiler;
+import io.havah.contract.token.hsp20.HSP20Basic;
+import io.havah.contract.token.hsp20.HSP20Mintable;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import score.Address;
+import score.Context;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.Random;
+
+import static io.havah.contract.benchmark.BenchmarkReport.params;
+
+public class HSP20Benchmark extends TestBase {
+    private static final ServiceManager sm = getServiceManager();
+    private static final Account owner = sm.createAccount();
+    private static final BigInteger totalSupply = BigInteger.TEN.pow(30);
+    private static final BigInteger holderBalance = BigInteger.valueOf(1000);
+    private static final BenchmarkReport report = new BenchmarkReport("hsp20");
+
+    public static class HSP20BenchmarkToken extends HSP20Basic {
+        public HSP20BenchmarkToken(String _name, String _symbol, int _decimals, BigInteger _totalSupply) {
+            super(_name, _symbol, _decimals);
+            _mint(Context.getCaller(), _totalSupply);
+        }
+    }
+
+    public static class HSP20MintableBenchmarkToken extends HSP20Mintable {
+        public HSP20MintableBenchmarkToken(String _name, String _symbol, int _decimals) {
+            super(_name, _symbol, _decimals);
+        }
+    }
+
+    @AfterAll
+    static void writeReport() throws IOException {
+        report.write();
+    }
+
+    static Score deploy() throws Exception {
+        return sm.deploy(owner, HSP20BenchmarkToken.class, "BenchmarkToken", "BMT", 18, totalSupply);
+    }
+
+    /**
+     * Creates `count` holders and transfers {@code holderBalance} to each of them.
+     */
+    static Account[] distribute(Score tokenScore, int count) {
+        Account[] holders = new Account[count];
+        for (int i = 0; i < count; i++) {
+            holders[i] = sm.createAccount();
+        }
+        for (int i = 0; i < count; i += 100) {
+            int size = Math.min(100, count - i);
+            Address[] to = new Address[size];
+            BigInteger[] values = new BigInteger[size];
+            for (int j = 0; j < size; j++) {
+                to[j] = holders[i + j].getAddress();
+                values[j] = holderBalance;
+            }
+            tokenScore.invoke(owner, "transferBatch", to, values);
+        }
+        return holders;
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {10, 100, 1000})
+    void transfer(int holders) throws Exception {
+        Score tokenScore = deploy();
+        Account[] accounts = distribute(tokenScore, holders);
+        var profiler = new StorageProfiler(tokenScore);
+        var random = new Random(holders);
+
+        report.measure("transfer", params("holders", holders), profiler, "transfer", 100, i ->
+                profiler.invoke(accounts[random.nextInt(holders)], "transfer",
+                        accounts[random.nextInt(holders)].getAddress(), BigInteger.ONE));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 100})
+    void transferBatch(int size) throws Exception {
+        Score tokenScore = deploy();
+        Account[] accounts = distribute(tokenScore, 100);
+        var profiler = new StorageProfiler(tokenScore);
+        var random = new Random(size);
+
+        report.measure("transferBatch", params("size", size), profiler, "transferBatch", 20, i -> {
+            Address[] to = new Address[size];
+            BigInteger[] values = new BigInteger[size];
+            for (int j = 0; j < size; j++) {
+                to[j] = accounts[random.nextInt(accounts.length)].getAddress();
+                values[j] = BigInteger.ONE;
+            }
+            profiler.invoke(owner, "transferBatch", to, values);
+        });
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 100})
+    void mintBatch(int size) throws Exception {
+        Score tokenScore = sm.deploy(owner, HSP20MintableBenchmarkToken.class, "BenchmarkToken", "BMT", 18);
+        var profiler = new StorageProfiler(tokenScore);
+        Account[] accounts = new Account[size];
+        for (int i = 0; i < size; i++) {
+            accounts[i] = sm.createAccount();
+        }
+
+        // one mintTo per recipient, to compare against a batch of the same recipients
+        report.measure("mintTo", params("size", size), profiler, "mintTo", 20 * size, i ->
+                profiler.invoke(owner, "mintTo", accounts[i % size].getAddress(), holderBalance));
+        report.measure("mintBatch", params("size", size), profiler, "mintBatch", 20, i -> {
+            Address[] to = new Address[size];
+            BigInteger[] values = new BigInteger[size];
+            for (int j = 0; j < size; j++) {
+                to[j] = accounts[j].getAddress();
+                values[j] = holderBalance;
+            }
+            profiler.invoke(owner, "mintBatch", to, values);
+        });
+    }
+}
@@ -0,0 +1,261 @@
+/*
+ * Copyright 2022 HAVAH Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.havah.contract.benchmark;
+
+import com.iconloop.score.test.Account;
+import com.iconloop.score.test.Score;
+import com.iconloop.score.test.ServiceManager;
+import com.iconloop.score.test.TestBase;
+import io.havah.contract.test.StorageProfiler;
+import io.havah.contract.token.hsp721.HSP721Consecutive;
+import io.havah.contract.token.hsp721.HSP721Lite;
+import io.havah.contract.token.hsp721.HSP721MintBurn;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import score.Address;
+import score.Context;
+import score.annotation.External;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.Random;
+
+import static io.havah.contract.benchmark.BenchmarkReport.params;
+
+public class HSP721Benchmark extends TestBase {
+    private static final ServiceManager sm = getServiceManager();
+    private static final Account owner = sm.createAccount();
+    private static final BenchmarkReport report = new BenchmarkReport("hsp721");
+    // HSP721MintBurn with each storage layout, minting with the base URI
+    private static final String[] VARIANTS = {"basic", "indexed", "packed", "lite"};
+
+    public static class HSP721IndexedToken extends HSP721MintBurn {
+        public HSP721IndexedToken(String _name, String _symbol) {
+            super(_name, _symbol);
+        }
+
+        @Override
+        protected boolean _useOwnerTokenIndex() {
+            return true;
+        }
+    }
+
+    public static class HSP721PackedToken extends HSP721MintBurn {
+        public HSP721PackedToken(String _name, String _symbol) {
+            super(_name, _symbol);
+        }
+
+        @Override
+        protected boolean _usePackedTokenRecord() {
+            return true;
+        }
+    }
+
+    public static class HSP721LiteToken extends HSP721Lite {
+        public HSP721LiteToken(String _name, String _symbol) {
+            super(_name, _symbol);
+        }
+
+        @External
+        public void mint(BigInteger _tokenId, String _uri) {
+            Context.require(Context.getCaller().equals(Context.getOwner()));
+            _mint(Context.getCaller(), _tokenId);
+        }
+    }
+
+    public static class HSP721ConsecutiveToken extends HSP721Consecutive {
+        public HSP721ConsecutiveToken(String _name, String _symbol) {
+            super(_name, _symbol);
+        }
+
+        @External
+        public void mintConsecutive(Address _to, int _quantity) {
+            Context.require(Context.getCaller().equals(Context.getOwner()));
+            _mintConsecutive(_to, _quantity);
+        }
+    }
+
+    @AfterAll
+    static void writeReport() throws IOException {
+        report.write();
+    }
+
+    private static Score deploy(String variant) throws Exception {
+        switch (variant) {
+            case "basic":
+                Score basic = sm.deploy(owner, HSP721MintBurn.class, "BenchmarkNFT", "BNFT");
+                basic.invoke(owner, "setBaseURI", "https://nft.havah.io/");
+                return basic;
+            case "indexed":
+                Score indexed = sm.deploy(owner, HSP721IndexedToken.class, "BenchmarkNFT", "BNFT");
+                indexed.invoke(owner, "setBaseURI", "https://nft.havah.io/");
+                return indexed;
+            case "packed":
+                Score packed = sm.deploy(owner, HSP721PackedToken.class, "BenchmarkNFT", "BNFT");
+                packed.invoke(owner, "setBaseURI", "https://nft.havah.io/");
+                return packed;
+            case "lite":
+                return sm.deploy(owner, HSP721LiteToken.class, "BenchmarkNFT", "BNFT");
+            default:
+                throw new IllegalArgumentException(variant);
+        }
+    }
+
+    private static BigInteger id(int value) {
+        return BigInteger.valueOf(value + 1);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {100, 1000, 10000})
+    void mintDrop(int tokens) throws Exception {
+        for (String variant : VARIANTS) {
+            Score tokenScore = deploy(variant);
+            var profiler = new StorageProfiler(tokenScore);
+            report.measure("mintDrop", params("variant", variant, "tokens", tokens), profiler, "mint", tokens, i ->
+                    profiler.invoke(owner, "mint", id(i), ""));
+        }
+
+        // a single run per 1000 tokens
+        Score tokenScore = sm.deploy(owner, HSP721ConsecutiveToken.class, "BenchmarkNFT", "BNFT");
+        var profiler = new StorageProfiler(tokenScore);
+        int quantity = Math.min(tokens, 1000);
+        report.measure("mintDrop", params("variant", "consecutive", "tokens", tokens, "quantity", quantity),
+                profiler, "mintConsecutive", tokens / quantity, i ->
+                        profiler.invoke(owner, "mintConsecutive", owner.getAddress(), quantity));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {10, 100})
+    void mintBatch(int size) throws Exception {
+        // each batch mints to 10 buyers, with consecutive token IDs per buyer
+        Account[] buyers = new Account[10];
+        for (int i = 0; i < buyers.length; i++) {
+            buyers[i] = sm.createAccount();
+        }
+        for (String variant : new String[]{"basic", "indexed", "packed"}) {
+            Score tokenScore = deploy(variant);
+            var profiler = new StorageProfiler(tokenScore);
+            report.measure("mintBatch", params("variant", variant, "size", size), profiler, "mintBatch", 10, i -> {
+                Address[] to = new Address[size];
+                BigInteger[] tokenIds = new BigInteger[size];
+                for (int j = 0; j < size; j++) {
+                    to[j] = buyers[j * buyers.length / size].getAddress();
+                    tokenIds[j] = id(i * size + j);
+                }
+                profiler.invoke(owner, "mintBatch", to, tokenIds, null);
+            });
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {100, 1000})
+    void transfer(int tokens) throws Exception {
+        for (String variant : VARIANTS) {
+            Score tokenScore = deploy(variant);
+            for (int i = 0; i < tokens; i++) {
+                tokenScore.invoke(owner, "mint", id(i), "");
+            }
+            var profiler = new StorageProfiler(tokenScore);
+            var alice = sm.createAccount();
+            var random = new Random(tokens);
+            int[] order = shuffledIndexes(tokens, random);
+            report.measure("transfer", params("variant", variant, "tokens", tokens), profiler, "transferFrom", 100, i ->
+                    profiler.invoke(owner, "transferFrom", owner.getAddress(), alice.getAddress(), id(order[i])));
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 100})
+    void transferFromBatch(int size) throws Exception {
+        for (String variant : new String[]{"basic", "indexed", "packed"}) {
+            Score tokenScore = deploy(variant);
+            for (int i = 0; i < size * 10; i++) {
+                tokenScore.invoke(owner, "mint", id(i), "");
+            }
+            var profiler = new StorageProfiler(tokenScore);
+            var alice = sm.createAccount();
+            report.measure("transferFromBatch", params("variant", variant, "size", size), profiler,
+                    "transferFromBatch", 10, i -> {
+                        BigInteger[] tokenIds = new BigInteger[size];
+                        for (int j = 0; j < size; j++) {
+                            tokenIds[j] = id(i * size + j);
+                        }
+                        profiler.invoke(owner, "transferFromBatch", owner.getAddress(), alice.getAddress(), tokenIds);
+                    });
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {10, 100})
+    void ranges(int size) throws Exception {
+        for (String variant : new String[]{"basic", "indexed", "packed"}) {
+            Score tokenScore = deploy(variant);
+            for (int i = 0; i < size * 20; i++) {
+                tokenScore.invoke(owner, "mint", id(i), "");
+            }
+            var profiler = new StorageProfiler(tokenScore);
+            var alice = sm.createAccount();
+            report.measure("transferRange", params("variant", variant, "size", size), profiler, "transferRange", 10, i ->
+                    profiler.invoke(owner, "transferRange", owner.getAddress(), alice.getAddress(), id(i * size), size));
+            report.measure("burnRange", params("variant", variant, "size", size), profiler, "burnRange", 10, i ->
+                    profiler.invoke(owner, "burnRange", id((i + 10) * size), size));
+            // a burn per token of the same list, for comparison
+            report.measure("burn", params("variant", variant, "size", size), profiler, "burn", size, i ->
+                    profiler.invoke(alice, "burn", id(i)));
+        }
+    }
+
+    private static int[] shuffledIndexes(int count, Random random) {
+        int[] indexes = new int[count];
+        for (int i = 0; i < count; i++) {
+            indexes[i] = i;
+        }
+        for (int i = count - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = indexes[i];
+            indexes[i] = indexes[j];
+            indexes[j] = tmp;
+        }
+        return indexes;
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {10, 100, 1000})
+    void enumeration(int depth) throws Exception {
+        for (String variant : new String[]{"basic", "indexed"}) {
+            Score tokenScore = deploy(variant);
+            for (int i = 0; i < depth; i++) {
+                tokenScore.invoke(owner, "mint", id(i), "");
+            }
+            var profiler = new StorageProfiler(tokenScore);
+            report.measure("tokenOfOwnerByIndex", params("variant", variant, "depth", depth), profiler,
+                    "tokenOfOwnerByIndex", 10, i -> profiler.call("tokenOfOwnerByIndex", owner.getAddress(), depth - 1));
+            report.measure("tokenByIndex", params("variant", variant, "depth", depth), profiler,
+                    "tokenByIndex", 10, i -> profiler.call("tokenByIndex", depth - 1));
+        }
+
+        // tokenOfOwnerByIndex of the consecutive layout scans the tokens up to the index
+        Score tokenScore = sm.deploy(owner, HSP721ConsecutiveToken.class, "BenchmarkNFT", "BNFT");
+        tokenScore.invoke(owner, "mintConsecutive", owner.getAddress(), depth);
+        var profiler = new StorageProfiler(tokenScore);
+        report.measure("tokenOfOwnerByIndex", params("variant", "consecutive", "depth", depth), profiler,
+                "tokenOfOwnerByIndex", 10, i -> profiler.call("tokenOfOwnerByIndex", owner.getAddress(), depth - 1));
+        report.measure("tokenByIndex", params("variant", "consecutive", "depth", depth), profiler,
+                "tokenByIndex", 10, i -> profiler.call("tokenByIndex", depth - 1));
+    }
+}
@@ -17,12 +17,17 @@
 package io.havah.contract.token.hsp1155;
 
 import io.havah.contract.token.hsp1155.extensions.HSP1155MetadataURI;
+import io.havah.contract.util.CachedDictDB;
 import score.*;
 import score.annotation.EventLog;
 import score.annotation.External;
 import score.annotation.Optional;
+import scorex.util.ArrayList;
+import scorex.util.HashMap;
 
 import java.math.BigInteger;
+import java.util.List;
+import java.util.Map;
 
 public abstract class HSP1155Basic implements HSP1155, HSP1155MetadataURI {
 
@@ -30,6 +35,8 @@ public abstract class HSP1155Basic implements HSP1155, HSP1155MetadataURI {
     // Consts
     // ================================================
     public static final Address ZERO_ADDRESS = new Address(new byte[Address.LENGTH]);
+    // placeholder of the token type ID in the base URI
+    public static final String ID_PLACEHOLDER = "{id}";
 
     // ================================================
     // SCORE DB
@@ -40,6 +47,8 @@ public abstract class HSP1155Basic implements HSP1155, HSP1155MetadataURI {
     private final BranchDB<Address, DictDB<Address, Boolean>> operatorApproval = Context.newBranchDB("approval", Boolean.class);
     // id => token URI
     private final DictDB<BigInteger, String> tokenURIs = Context.newDictDB("token_uri", String.class);
+    // URI template shared by all token types
+    private final VarDB<String> baseURI = Context.newVarDB("base_uri", String.class);
 
     // ================================================
     // External methods
@@ -83,13 +92,15 @@ public abstract class HSP1155Basic implements HSP1155, HSP1155MetadataURI {
                 "_to must be non-zero");
         Context.require(_from.equals(caller) || this.isApprovedForAll(_from, caller),
                 "Need operator approval for 3rd party transfers");
-        Context.require(BigInteger.ZERO.compareTo(_value) <= 0 && _value.compareTo(balanceOf(_from, _id)) <= 0,
+        CachedDictDB<Address, BigInteger> balance = cachedBalances(_id);
+        BigInteger fromBalance = balance.getOrDefault(_from, BigInteger.ZERO);
+        Context.require(BigInteger.ZERO.compareTo(_value) <= 0 && _value.compareTo(fromBalance) <= 0,
                 "Insufficient funds");
 
         // Transfer funds
-        DictDB<Address, BigInteger> balance = balances.at(_id);
-        balance.set(_from, balanceOf(_from, _id).subtract(_value));
-        balance.set(_to, balanceOf(_to, _id).add(_value));
+        balance.set(_from, fromBalance.subtract(_value));
+        balance.set(_to, balance.getOrDefault(_to, BigInteger.ZERO).add(_value));
+        balance.flush();
 
         // Emit event
         this.TransferSingle(caller, _from, _to, _id, _value);
@@ -111,17 +122,24 @@ public abstract class HSP1155Basic implements HSP1155, HSP1155MetadataURI {
         Context.require(_from.equals(caller) || this.isApprovedForAll(_from, caller),
                 "Need operator approval for 3rd party transfers");
 
-        for (int i = 0; i < _ids.length; i++) {
-            BigInteger _id = _ids[i];
-            BigInteger _value = _values[i];
+        for (BigInteger _value : _values) {
+            Context.require(BigInteger.ZERO.compareTo(_value) <= 0, "Insufficient funds");
+        }
+
+        // Transfer funds once per distinct id
+        List<BigInteger> distinctIds = new ArrayList<>();
+        Map<BigInteger, BigInteger> totals = sumById(_ids, _values, distinctIds);
+        for (BigInteger _id : distinctIds) {
+            BigInteger _value = totals.get(_id);
 
-            Context.require(BigInteger.ZERO.compareTo(_value) <= 0 && _value.compareTo(balanceOf(_from, _id)) <= 0,
+            CachedDictDB<Address, BigInteger> balance = cachedBalances(_id);
+            BigInteger fromBalance = balance.getOrDefault(_from, BigInteger.ZERO);
+            Context.require(_value.compareTo(fromBalance) <= 0,
                     "Insufficient funds");
 
-            // Transfer funds
-            DictDB<Address, BigInteger> balance = balances.at(_id);
-            balance.set(_from, balanceOf(_from, _id).subtract(_value));
-            balance.set(_to, balanceOf(_to, _id).add(_value));
+            balance.set(_from, fromBalance.subtract(_value));
+            balance.set(_to, balance.getOrDefault(_to, BigInteger.ZERO).add(_value));
+            balance.flush();
         }
 
         // Emit event
@@ -177,17 +195,77 @@ public abstract class HSP1155Basic implements HSP1155, HSP1155MetadataURI {
         return writer.toByteArray();
     }
 
+    /**
+     * Sums up the values of repeated ids in memory.
+     * The distinct ids are added to {@code distinctIds} in the order of their first appearance.
+     *
+     * @return id => sum of the values
+     */
+    private static Map<BigInteger, BigInteger> sumById(BigInteger[] ids, BigInteger[] values, List<BigInteger> distinctIds) {
+        Map<BigInteger, BigInteger> totals = new HashMap<>();
+        for (int i = 0; i < ids.length; i++) {
+            BigInteger total = totals.get(ids[i]);
+            if (total == null) {
+                distinctIds.add(ids[i]);
+                total = BigInteger.ZERO;
+            }
+            totals.put(ids[i], total.add(values[i]));
+        }
+        return totals;
+    }
+
     protected void _setTokenURI(BigInteger _id, String _uri) {
         Context.require(_uri.length() > 0, "Uri should be set");
         tokenURIs.set(_id, _uri);
         this.URI(_id, _uri);
     }
 
+    /**
+     * Sets the URI template used for the token types without their own URI.
+     * The `{id}` substring of the template is replaced with the token type ID
+     * in lowercase hexadecimal, zero-padded to 64 characters.
+     */
+    protected void _setBaseURI(String _uri) {
+        Context.require(_uri.length() > 0, "Uri should be set");
+        baseURI.set(_uri);
+    }
+
+    protected String _baseURI() {
+        return baseURI.get();
+    }
+
+    private static String hexId(BigInteger id) {
+        String hex = id.toString(16);
+        StringBuilder sb = new StringBuilder(64);
+        for (int i = hex.length(); i < 64; i++) {
+            sb.append('0');
+        }
+        return sb.append(hex).toString();
+    }
+
+    private void setBalance(BigInteger id, Address owner, BigInteger value) {
+        // an empty balance is deleted instead of storing zero
+        balances.at(id).set(owner, (value.signum() != 0) ? value : null);
+    }
+
+    /**
+     * Returns a write-back cache of the balances of `id` for a single invocation.
+     * The cached values are stored through {@code setBalance} on flush.
+     */
+    private CachedDictDB<Address, BigInteger> cachedBalances(BigInteger id) {
+        return new CachedDictDB<>(balances.at(id)) {
+            @Override
+            protected void write(Address owner, BigInteger value) {
+                setBalance(id, owner, value);
+            }
+        };
+    }
+
     private void _mintInternal(Address owner, BigInteger id, BigInteger amount) {
         Context.require(amount.compareTo(BigInteger.ZERO) > 0, "Invalid amount");
 
         BigInteger balance = balanceOf(owner, id);
-        balances.at(id).set(owner, balance.add(amount));
+        setBalance(id, owner, balance.add(amount));
     }
 
     protected void _mint(Address owner, BigInteger id, BigInteger amount) {
@@ -200,10 +278,13 @@ public abstract class HSP1155Basic implements HSP1155, HSP1155MetadataURI {
     protected void _mintBatch(Address owner, BigInteger[] ids, BigInteger[] amounts) {
         Context.require(ids.length == amounts.length, "id/amount pairs mismatch");
 
-        for (int i = 0; i < ids.length; i++) {
-            BigInteger id = ids[i];
-            BigInteger amount = amounts[i];
-            _mintInternal(owner, id, amount);
+        for (BigInteger amount : amounts) {
+            Context.require(amount.compareTo(BigInteger.ZERO) > 0, "Invalid amount");
+        }
+        List<BigInteger> distinctIds = new ArrayList<>();
+        Map<BigInteger, BigInteger> totals = sumById(ids, amounts, distinctIds);
+        for (BigInteger id : distinctIds) {
+            _mintInternal(owner, id, totals.get(id));
         }
 
         // emit transfer event for Mint semantic
@@ -215,7 +296,7 @@ public abstract class HSP1155Basic implements HSP1155, HSP1155MetadataURI {
 
         BigInteger balance = balanceOf(owner, id);
         Context.require(balance.compareTo(amount) >= 0, "Insufficient funds");
-        balances.at(id).set(owner, balance.subtract(amount));
+        setBalance(id, owner, balance.subtract(amount));
     }
 
     protected void _burn(Address owner, BigInteger id, BigInteger amount) {
@@ -228,10 +309,13 @@ public abstract class HSP1155Basic implements HSP1155, HSP1155MetadataURI {
     protected void _burnBatch(Address owner, BigInteger[] ids, BigInteger[] amounts) {
         Context.require(ids.length == amounts.length, "id/amount pairs mismatch");
 
-        for (int i = 0; i < ids.length; i++) {
-            BigInteger id = ids[i];
-            BigInteger amount = amounts[i];
-            _burnInternal(owner, id, amount);
+        for (BigInteger amount : amounts) {
+            Context.require(amount.compareTo(BigInteger.ZERO) > 0, "Invalid amount");
+        }
+        List<BigInteger> distinctIds = new ArrayList<>();
+        Map<BigInteger, BigInteger> totals = sumById(ids, amounts, distinctIds);
+        for (BigInteger id : distinctIds) {
+            _burnInternal(owner, id, totals.get(id));
         }
 
         // emit transfer event for Burn semantic
@@ -240,6 +324,11 @@ public abstract class HSP1155Basic implements HSP1155, HSP1155MetadataURI {
 
     @External(readonly = true)
     public String uri(BigInteger _id) {
-        return tokenURIs.get(_id);
+        String tokenURI = tokenURIs.get(_id);
+        if (tokenURI != null) {
+            return tokenURI;
+        }
+        String template = baseURI.get();
+        return (template != null) ? template.replace(ID_PLACEHOLDER, hexId(_id)) : null;
     }
 }
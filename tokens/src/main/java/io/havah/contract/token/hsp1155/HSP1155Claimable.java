@@ -0,0 +1,89 @@
+/*
+ * Copyright 2022 HAVAH Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.havah.contract.token.hsp1155;
+
+import io.havah.contract.util.MerkleClaims;
+import score.Address;
+import score.ByteArrayObjectWriter;
+import score.Context;
+import score.annotation.EventLog;
+import score.annotation.External;
+
+import java.math.BigInteger;
+
+/**
+ * HSP1155 extension that distributes tokens by claims against a Merkle root, instead of minting to each recipient.
+ * <p>
+ * The owner commits the root of a tree whose leaves are the SHA3-256 hashes of the RLP list of
+ * the index, the account, the token ID and the amount (see {@link #claimLeaf}), and each account mints
+ * its amount by calling {@link #claim} with the proof of its leaf. An index can be claimed only once.
+ */
+public abstract class HSP1155Claimable extends HSP1155Basic {
+    private final MerkleClaims claims = new MerkleClaims("claims");
+
+    @External(readonly = true)
+    public byte[] merkleRoot() {
+        return claims.getRoot();
+    }
+
+    @External(readonly = true)
+    public boolean isClaimed(BigInteger _index) {
+        return claims.isClaimed(_index);
+    }
+
+    /**
+     * Replaces the Merkle root of the claimable distribution.
+     * The indexes claimed under the previous roots stay claimed.
+     *
+     * @param _root The Merkle root
+     */
+    @External
+    public void setMerkleRoot(byte[] _root) {
+        Context.require(Context.getCaller().equals(Context.getOwner()), "Only owner can call this method");
+        claims.setRoot(_root);
+    }
+
+    /**
+     * Creates _amount of token _id, and assigns to the caller,
+     * if the leaf of _index, the caller, _id and _amount is in the current tree.
+     *
+     * @param _index  The index of the leaf
+     * @param _id     ID of the token
+     * @param _amount The amount of tokens to claim
+     * @param _proof  The sibling hashes from the leaf up to the root
+     */
+    @External
+    public void claim(BigInteger _index, BigInteger _id, BigInteger _amount, byte[][] _proof) {
+        Address account = Context.getCaller();
+        claims.claim(_index, claimLeaf(_index, account, _id, _amount), _proof);
+        super._mint(account, _id, _amount);
+        Claimed(_index, account, _id, _amount);
+    }
+
+    protected static byte[] claimLeaf(BigInteger index, Address account, BigInteger id, BigInteger amount) {
+        ByteArrayObjectWriter writer = Context.newByteArrayObjectWriter("RLPn");
+        writer.beginList(4);
+        writer.write(index);
+        writer.write(account);
+        writer.write(id);
+        writer.write(amount);
+        writer.end();
+        return Context.hash("sha3-256", writer.toByteArray());
+    }
+
+    @EventLog(indexed = 2)
+    public void Claimed(BigInteger _index, Address _account, BigInteger _id, BigInteger _amount) {}
+}
@@ -20,6 +20,7 @@ import score.Address;
 import score.Context;
 import score.DictDB;
 import score.annotation.External;
+import score.annotation.Optional;
 
 import java.math.BigInteger;
 
@@ -40,10 +41,10 @@ public abstract class HSP1155MintBurn extends HSP1155Basic {
      *
      * @param _id     ID of the token
      * @param _supply The initial token supply
-     * @param _uri    The token URI
+     * @param _uri    The token URI; if omitted, the base URI is used
      */
     @External
-    public void mint(BigInteger _id, BigInteger _supply, String _uri) {
+    public void mint(BigInteger _id, BigInteger _supply, @Optional String _uri) {
         Context.require(creators.get(_id) == null, "Token is already minted");
         Context.require(_supply.compareTo(BigInteger.ZERO) > 0, "Supply should be positive");
 
@@ -52,8 +53,12 @@ public abstract class HSP1155MintBurn extends HSP1155Basic {
 
         // mint tokens
         super._mint(caller, _id, _supply);
-        // set token URI
-        super._setTokenURI(_id, _uri);
+        // set token URI only if it differs from the base URI
+        if (_uri != null && _uri.length() > 0) {
+            super._setTokenURI(_id, _uri);
+        } else {
+            Context.require(_baseURI() != null, "Uri should be set");
+        }
     }
 
     /**
@@ -82,4 +87,15 @@ public abstract class HSP1155MintBurn extends HSP1155Basic {
         Context.require(Context.getCaller().equals(creators.get(_id)), "Not token creator");
         super._setTokenURI(_id, _uri);
     }
+
+    /**
+     * Updates the URI template shared by the token types without their own URI
+     *
+     * @param _uri The URI template containing the `{id}` placeholder
+     */
+    @External
+    public void setBaseURI(String _uri) {
+        Context.require(Context.getCaller().equals(Context.getOwner()), "Only owner can call this method");
+        super._setBaseURI(_uri);
+    }
 }
@@ -17,14 +17,21 @@
 package io.havah.contract.token.hsp20;
 
 import io.havah.contract.token.hsp20.extensions.HSP20Metadata;
+import io.havah.contract.util.CachedDictDB;
 import score.*;
 import score.annotation.EventLog;
 import score.annotation.External;
+import scorex.util.ArrayList;
+import scorex.util.HashMap;
 
 import java.math.BigInteger;
+import java.util.List;
+import java.util.Map;
 
 public abstract class HSP20Basic implements HSP20, HSP20Metadata {
     protected static final Address ZERO_ADDRESS = new Address(new byte[Address.LENGTH]);
+    // an allowance of this value or more is never decreased by transferFrom
+    public static final BigInteger UNLIMITED_ALLOWANCE = BigInteger.ONE.shiftLeft(256).subtract(BigInteger.ONE);
     private final VarDB<String> name = Context.newVarDB("token_name", String.class);
     private final VarDB<String> symbol = Context.newVarDB("token_symbol", String.class);
     private final VarDB<BigInteger> decimals = Context.newVarDB("decimals", BigInteger.class);
@@ -77,17 +84,54 @@ public abstract class HSP20Basic implements HSP20, HSP20Metadata {
     }
 
     private void safeSetBalance(Address owner, BigInteger value) {
-        balances.set(owner, value);
+        // an empty balance is deleted instead of storing zero
+        balances.set(owner, (value.signum() != 0) ? value : null);
+        _afterBalanceUpdate(owner, value);
     }
 
-    private void transfer(Address from, Address to, BigInteger value) {
+    /**
+     * Hook that is called after the balance of `owner` is stored as `balance`.
+     * Each distinct balance changed by a batch is stored once, with its final value.
+     */
+    protected void _afterBalanceUpdate(Address owner, BigInteger balance) {
+    }
+
+    /**
+     * Returns a write-back cache of the balances for a single invocation.
+     * The cached values are stored through {@code safeSetBalance} on flush.
+     */
+    private CachedDictDB<Address, BigInteger> cachedBalances() {
+        return new CachedDictDB<>(balances) {
+            @Override
+            protected void write(Address owner, BigInteger value) {
+                safeSetBalance(owner, value);
+            }
+        };
+    }
+
+    /**
+     * Hook that is called before `value` tokens move from `from` to `to`, including minting
+     * (`from` is the zero address) and burning (`to` is the zero address).
+     * The stored balances and total supply are still those before the move.
+     */
+    protected void _beforeTokenTransfer(Address from, Address to, BigInteger value) {
+    }
+
+    /**
+     * Moves `value` tokens from `from` to `to`, and fires a {@code Transfer} event.
+     */
+    protected void _transfer(Address from, Address to, BigInteger value) {
         // check some basic requirements
         Context.require(value.compareTo(BigInteger.ZERO) >= 0, "_value needs to be positive");
-        Context.require(balanceOf(from).compareTo(value) >= 0, "Insufficient balance");
+        CachedDictDB<Address, BigInteger> balanceCache = cachedBalances();
+        BigInteger fromBalance = balanceCache.getOrDefault(from, BigInteger.ZERO);
+        Context.require(fromBalance.compareTo(value) >= 0, "Insufficient balance");
+        _beforeTokenTransfer(from, to, value);
 
         // adjust the balances
-        safeSetBalance(from, balanceOf(from).subtract(value));
-        safeSetBalance(to, balanceOf(to).add(value));
+        balanceCache.set(from, fromBalance.subtract(value));
+        balanceCache.set(to, balanceCache.getOrDefault(to, BigInteger.ZERO).add(value));
+        balanceCache.flush();
 
         // emit Transfer event first
         Transfer(from, to, value);
@@ -96,40 +140,192 @@ public abstract class HSP20Basic implements HSP20, HSP20Metadata {
     @External
     public boolean transfer(Address _to, BigInteger _value) {
         Address _from = Context.getCaller();
-        transfer(_from, _to, _value);
+        _transfer(_from, _to, _value);
+        return true;
+    }
+
+    /**
+     * Transfers {@code _values[i]} amount of tokens to each {@code _to[i]}, and fires a {@code Transfer} event per recipient.
+     * The total amount is checked up front, and each distinct balance is read and written only once.
+     */
+    @External
+    public boolean transferBatch(Address[] _to, BigInteger[] _values) {
+        Context.require(_to.length == _values.length, "_to/_values pairs mismatch");
+        Address _from = Context.getCaller();
+
+        BigInteger total = BigInteger.ZERO;
+        for (BigInteger value : _values) {
+            Context.require(value.compareTo(BigInteger.ZERO) >= 0, "_value needs to be positive");
+            total = total.add(value);
+        }
+        CachedDictDB<Address, BigInteger> balanceCache = cachedBalances();
+        BigInteger fromBalance = balanceCache.getOrDefault(_from, BigInteger.ZERO);
+        Context.require(fromBalance.compareTo(total) >= 0, "Insufficient balance");
+
+        // debit the sender once, then credit each recipient
+        balanceCache.set(_from, fromBalance.subtract(total));
+        for (int i = 0; i < _to.length; i++) {
+            _beforeTokenTransfer(_from, _to[i], _values[i]);
+            balanceCache.set(_to[i], balanceCache.getOrDefault(_to[i], BigInteger.ZERO).add(_values[i]));
+            Transfer(_from, _to[i], _values[i]);
+        }
+        balanceCache.flush();
+        return true;
+    }
+
+    /**
+     * Transfers {@code _values[i]} amount of tokens from each {@code _from[i]} to {@code _to[i]},
+     * and fires a {@code Transfer} event per leg.
+     * The caller must be {@code _from[i]} or have enough allowance from it for the sum of its legs.
+     * The legs are netted in memory, so a sender only needs to cover its net outflow, and each
+     * distinct balance and allowance is read and written only once.
+     * {@link #_beforeTokenTransfer} is called for the net flows between the accounts, not for each leg.
+     */
+    @External
+    public boolean settle(Address[] _from, Address[] _to, BigInteger[] _values) {
+        Context.require(_from.length == _to.length && _from.length == _values.length, "_from/_to/_values mismatch");
+        Address spender = Context.getCaller();
+
+        // sum up the outflow of each sender to spend its allowance once
+        List<Address> senders = new ArrayList<>();
+        Map<Address, BigInteger> outflows = new HashMap<>();
+        for (int i = 0; i < _values.length; i++) {
+            Context.require(_values[i].compareTo(BigInteger.ZERO) >= 0, "_value needs to be positive");
+            BigInteger outflow = outflows.get(_from[i]);
+            if (outflow == null) {
+                senders.add(_from[i]);
+                outflow = BigInteger.ZERO;
+            }
+            outflows.put(_from[i], outflow.add(_values[i]));
+        }
+        for (Address sender : senders) {
+            if (!sender.equals(spender)) {
+                _spendAllowance(sender, spender, outflows.get(sender));
+            }
+        }
+
+        // net change of the balance of each account, in the order of its first leg
+        List<Address> accounts = new ArrayList<>();
+        Map<Address, BigInteger> nets = new HashMap<>();
+        for (int i = 0; i < _values.length; i++) {
+            addNet(accounts, nets, _from[i], _values[i].negate());
+            addNet(accounts, nets, _to[i], _values[i]);
+        }
+
+        CachedDictDB<Address, BigInteger> balanceCache = cachedBalances();
+        // only the net outflows need to be covered
+        for (Address account : accounts) {
+            BigInteger net = nets.get(account);
+            if (net.signum() < 0) {
+                Context.require(balanceCache.getOrDefault(account, BigInteger.ZERO).add(net).signum() >= 0,
+                        "Insufficient balance");
+            }
+        }
+        beforeNetTransfers(accounts, nets);
+        for (Address account : accounts) {
+            BigInteger net = nets.get(account);
+            if (net.signum() != 0) {
+                balanceCache.set(account, balanceCache.getOrDefault(account, BigInteger.ZERO).add(net));
+            }
+        }
+        for (int i = 0; i < _values.length; i++) {
+            Transfer(_from[i], _to[i], _values[i]);
+        }
+        balanceCache.flush();
         return true;
     }
 
+    private static void addNet(List<Address> accounts, Map<Address, BigInteger> nets, Address account,
+                               BigInteger delta) {
+        BigInteger net = nets.get(account);
+        if (net == null) {
+            accounts.add(account);
+            net = BigInteger.ZERO;
+        }
+        nets.put(account, net.add(delta));
+    }
+
+    /**
+     * Calls {@link #_beforeTokenTransfer} for the net flows of a settlement instead of its legs,
+     * pairing the accounts with a net outflow with the ones with a net inflow in the order of `accounts`.
+     * So the hook never sees a leg paid with tokens received in the same settlement.
+     */
+    private void beforeNetTransfers(List<Address> accounts, Map<Address, BigInteger> nets) {
+        int receiver = 0;
+        BigInteger inflow = BigInteger.ZERO;
+        for (Address sender : accounts) {
+            BigInteger outflow = nets.get(sender).negate();
+            while (outflow.signum() > 0) {
+                while (inflow.signum() == 0) {
+                    inflow = nets.get(accounts.get(receiver++)).max(BigInteger.ZERO);
+                }
+                BigInteger value = outflow.min(inflow);
+                _beforeTokenTransfer(sender, accounts.get(receiver - 1), value);
+                outflow = outflow.subtract(value);
+                inflow = inflow.subtract(value);
+            }
+        }
+    }
+
     /**
      * Creates `value` tokens and assigns them to `owner`, increasing the total supply.
      */
     protected void _mint(Address owner, BigInteger value) {
         Context.require(!ZERO_ADDRESS.equals(owner), "Owner address cannot be zero address");
         Context.require(value.compareTo(BigInteger.ZERO) >= 0, "value needs to be positive");
+        _beforeTokenTransfer(ZERO_ADDRESS, owner, value);
 
         totalSupply.set(totalSupply().add(value));
         safeSetBalance(owner, balanceOf(owner).add(value));
         Transfer(ZERO_ADDRESS, owner, value);
     }
 
+    /**
+     * Creates `values[i]` tokens and assigns them to each `to[i]`, increasing the total supply once by the sum.
+     * All the pairs are validated before any state changes, and each distinct balance is read and written only once.
+     */
+    protected void _mintBatch(Address[] to, BigInteger[] values) {
+        Context.require(to.length == values.length, "_to/_values pairs mismatch");
+        BigInteger total = BigInteger.ZERO;
+        for (int i = 0; i < to.length; i++) {
+            Context.require(!ZERO_ADDRESS.equals(to[i]), "Owner address cannot be zero address");
+            Context.require(values[i].compareTo(BigInteger.ZERO) >= 0, "value needs to be positive");
+            total = total.add(values[i]);
+        }
+
+        CachedDictDB<Address, BigInteger> balanceCache = cachedBalances();
+        for (int i = 0; i < to.length; i++) {
+            _beforeTokenTransfer(ZERO_ADDRESS, to[i], values[i]);
+            balanceCache.set(to[i], balanceCache.getOrDefault(to[i], BigInteger.ZERO).add(values[i]));
+        }
+        totalSupply.set(totalSupply().add(total));
+        balanceCache.flush();
+        for (int i = 0; i < to.length; i++) {
+            Transfer(ZERO_ADDRESS, to[i], values[i]);
+        }
+    }
+
     /**
      * Destroys `value` tokens from `owner`, reducing the total supply.
      */
     protected void _burn(Address owner, BigInteger value) {
         Context.require(!ZERO_ADDRESS.equals(owner), "Owner address cannot be zero address");
         Context.require(value.compareTo(BigInteger.ZERO) >= 0, "value needs to be positive");
-        Context.require(balanceOf(owner).compareTo(value) >= 0, "Insufficient balance");
+        BigInteger balance = balanceOf(owner);
+        Context.require(balance.compareTo(value) >= 0, "Insufficient balance");
+        _beforeTokenTransfer(owner, ZERO_ADDRESS, value);
 
-        safeSetBalance(owner, balanceOf(owner).subtract(value));
+        safeSetBalance(owner, balance.subtract(value));
         totalSupply.set(totalSupply().subtract(value));
         Transfer(owner, ZERO_ADDRESS, value);
     }
 
-    private void _approve(Address owner, Address spender, BigInteger value) {
+    protected void _approve(Address owner, Address spender, BigInteger value) {
         Context.require(!ZERO_ADDRESS.equals(owner), "approve from the zero address");
         Context.require(!ZERO_ADDRESS.equals(spender), "approve to the zero address");
 
-        allowances.at(owner).set(spender, value);
+        // a zero allowance is deleted instead of storing zero
+        allowances.at(owner).set(spender, (value.signum() != 0) ? value : null);
         Approval(owner, spender, value);
     }
 
@@ -140,13 +336,44 @@ public abstract class HSP20Basic implements HSP20, HSP20Metadata {
         return true;
     }
 
+    /**
+     * Increases the allowance of _spender over the tokens of the caller by _addedValue.
+     */
+    @External
+    public boolean increaseAllowance(Address _spender, BigInteger _addedValue) {
+        Context.require(_addedValue.signum() >= 0, "_addedValue needs to be positive");
+        Address owner = Context.getCaller();
+        _approve(owner, _spender, allowance(owner, _spender).add(_addedValue));
+        return true;
+    }
+
+    /**
+     * Decreases the allowance of _spender over the tokens of the caller by _subtractedValue.
+     */
+    @External
+    public boolean decreaseAllowance(Address _spender, BigInteger _subtractedValue) {
+        Context.require(_subtractedValue.signum() >= 0, "_subtractedValue needs to be positive");
+        Address owner = Context.getCaller();
+        BigInteger reminder = allowance(owner, _spender).subtract(_subtractedValue);
+        Context.require(reminder.signum() >= 0, "decreased allowance below zero");
+        _approve(owner, _spender, reminder);
+        return true;
+    }
+
     @External(readonly = true)
     public BigInteger allowance(Address _owner, Address _spender) {
         return allowances.at(_owner).getOrDefault(_spender, BigInteger.ZERO);
     }
 
+    /**
+     * Decreases the allowance of `spender` over the tokens of `owner` by `value`.
+     * An unlimited allowance is left as it is, without a write or an {@code Approval} event.
+     */
     protected void _spendAllowance(Address owner, Address spender, BigInteger value) {
         BigInteger currentAllowance = allowance(owner, spender);
+        if (currentAllowance.compareTo(UNLIMITED_ALLOWANCE) >= 0) {
+            return;
+        }
         BigInteger reminder = currentAllowance.subtract(value);
         Context.require(reminder.signum() >= 0, "insufficient allowance");
         _approve(owner, spender,  reminder);
@@ -156,7 +383,7 @@ public abstract class HSP20Basic implements HSP20, HSP20Metadata {
     public boolean transferFrom(Address _from, Address _to, BigInteger _value) {
         Address spender = Context.getCaller();
         _spendAllowance(_from, spender, _value);
-        transfer(_from, _to, _value);
+        _transfer(_from, _to, _value);
         return true;
     }
 
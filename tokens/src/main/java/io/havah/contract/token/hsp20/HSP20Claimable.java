@@ -0,0 +1,88 @@
+/*
+ * Copyright 2022 HAVAH Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.havah.contract.token.hsp20;
+
+import io.havah.contract.util.MerkleClaims;
+import score.Address;
+import score.ByteArrayObjectWriter;
+import score.Context;
+import score.annotation.EventLog;
+import score.annotation.External;
+
+import java.math.BigInteger;
+
+/**
+ * HSP20 extension that distributes tokens by claims against a Merkle root, instead of minting to each recipient.
+ * <p>
+ * The minter commits the root of a tree whose leaves are the SHA3-256 hashes of the RLP list of
+ * the index, the account and the amount (see {@link #claimLeaf}), and each account mints its amount
+ * by calling {@link #claim} with the proof of its leaf. An index can be claimed only once.
+ */
+public abstract class HSP20Claimable extends HSP20Mintable {
+    private final MerkleClaims claims = new MerkleClaims("claims");
+
+    public HSP20Claimable(String _name, String _symbol, int _decimals) {
+        super(_name, _symbol, _decimals);
+    }
+
+    @External(readonly = true)
+    public byte[] merkleRoot() {
+        return claims.getRoot();
+    }
+
+    @External(readonly = true)
+    public boolean isClaimed(BigInteger _index) {
+        return claims.isClaimed(_index);
+    }
+
+    /**
+     * Replaces the Merkle root of the claimable distribution.
+     * The indexes claimed under the previous roots stay claimed.
+     */
+    @External
+    public void setMerkleRoot(byte[] _root) {
+        // simple access control - only the minter can distribute new token
+        Context.require(_isMinter(Context.getCaller()));
+        claims.setRoot(_root);
+    }
+
+    /**
+     * Creates _amount number of tokens, and assigns to the caller,
+     * if the leaf of _index, the caller and _amount is in the current tree.
+     *
+     * @param _proof the sibling hashes from the leaf up to the root
+     */
+    @External
+    public void claim(BigInteger _index, BigInteger _amount, byte[][] _proof) {
+        Address account = Context.getCaller();
+        claims.claim(_index, claimLeaf(_index, account, _amount), _proof);
+        _mint(account, _amount);
+        Claimed(_index, account, _amount);
+    }
+
+    protected static byte[] claimLeaf(BigInteger index, Address account, BigInteger amount) {
+        ByteArrayObjectWriter writer = Context.newByteArrayObjectWriter("RLPn");
+        writer.beginList(3);
+        writer.write(index);
+        writer.write(account);
+        writer.write(amount);
+        writer.end();
+        return Context.hash("sha3-256", writer.toByteArray());
+    }
+
+    @EventLog(indexed = 2)
+    public void Claimed(BigInteger _index, Address _account, BigInteger _amount) {}
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2022 HAVAH Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.havah.contract.token.hsp20;
+
+import io.havah.contract.util.EnumerableSet;
+import io.havah.contract.util.Pages;
+import score.Address;
+import score.annotation.External;
+import scorex.util.ArrayList;
+
+import java.math.BigInteger;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * HSP20 extension that keeps the index of the accounts with a positive balance, so that the holders
+ * can be listed by pages.
+ * <p>
+ * An account is added when its balance becomes positive and removed when it returns to zero,
+ * so the index costs one more read on each balance update, and one write only when an account
+ * starts or stops holding tokens.
+ */
+public abstract class HSP20Enumerable extends HSP20Basic {
+    private final EnumerableSet<Address> holders = new EnumerableSet<>("holders", Address.class);
+
+    public HSP20Enumerable(String _name, String _symbol, int _decimals) {
+        super(_name, _symbol, _decimals);
+    }
+
+    @External(readonly = true)
+    public int holderCount() {
+        return holders.length();
+    }
+
+    /**
+     * Returns up to _limit holders from the index _offset, as the list of maps with
+     * the `address` and the `balance` of each holder.
+     * The order of the holders changes when a holder is removed, since the last one takes its place.
+     */
+    @External(readonly = true)
+    public List<Map<String, Object>> holders(int _offset, int _limit) {
+        int end = Pages.end(holders.length(), _offset, _limit);
+        List<Map<String, Object>> page = new ArrayList<>();
+        for (int i = _offset; i < end; i++) {
+            Address holder = holders.at(i);
+            page.add(Map.of(
+                    "address", holder,
+                    "balance", balanceOf(holder)));
+        }
+        return page;
+    }
+
+    @Override
+    protected void _afterBalanceUpdate(Address owner, BigInteger balance) {
+        super._afterBalanceUpdate(owner, balance);
+        if (balance.signum() > 0) {
+            holders.add(owner);
+        } else {
+            holders.remove(owner);
+        }
+    }
+}
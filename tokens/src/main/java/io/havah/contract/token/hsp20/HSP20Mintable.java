@@ -35,6 +35,10 @@ public abstract class HSP20Mintable extends HSP20Basic {
         }
     }
 
+    protected boolean _isMinter(Address account) {
+        return account.equals(minter.get());
+    }
+
     /**
      * Creates _value number of tokens, and assigns to caller.
      * Increases the balance of that account and the total supply.
@@ -57,6 +61,17 @@ public abstract class HSP20Mintable extends HSP20Basic {
         _mint(_to, _value);
     }
 
+    /**
+     * Creates _values[i] number of tokens, and assigns to each _to[i].
+     * Duplicate recipients are merged, and the total supply is increased once by the sum.
+     */
+    @External
+    public void mintBatch(Address[] _to, BigInteger[] _values) {
+        // simple access control - only the minter can mint new token
+        Context.require(Context.getCaller().equals(minter.get()));
+        _mintBatch(_to, _values);
+    }
+
     @External
     public void setMinter(Address _minter) {
         // simple access control - only the contract owner can set new minter
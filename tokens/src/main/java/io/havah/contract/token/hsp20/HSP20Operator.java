@@ -0,0 +1,84 @@
+/*
+ * Copyright 2022 HAVAH Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.havah.contract.token.hsp20;
+
+import score.Address;
+import score.BranchDB;
+import score.Context;
+import score.DictDB;
+import score.annotation.EventLog;
+import score.annotation.External;
+
+import java.math.BigInteger;
+
+/**
+ * HSP20 extension that lets a holder authorize operators to move any amount of its tokens.
+ * <p>
+ * An operator is a single flag per holder and operator, like the operator approvals of HSP721 and HSP1155,
+ * so {@link #operatorSend} reads one flag instead of reading and rewriting an allowance.
+ */
+public abstract class HSP20Operator extends HSP20Basic {
+    // holder => (operator => authorized)
+    private final BranchDB<Address, DictDB<Address, Boolean>> operators = Context.newBranchDB("operators", Boolean.class);
+
+    public HSP20Operator(String _name, String _symbol, int _decimals) {
+        super(_name, _symbol, _decimals);
+    }
+
+    @External(readonly = true)
+    public boolean isOperatorFor(Address _operator, Address _holder) {
+        return _operator.equals(_holder) || operators.at(_holder).getOrDefault(_operator, false);
+    }
+
+    /**
+     * Authorizes _operator to move any amount of the tokens of the caller.
+     */
+    @External
+    public void authorizeOperator(Address _operator) {
+        Address holder = Context.getCaller();
+        Context.require(!holder.equals(_operator), "authorizing self as operator");
+        operators.at(holder).set(_operator, true);
+        AuthorizedOperator(_operator, holder);
+    }
+
+    /**
+     * Revokes the authorization of _operator over the tokens of the caller.
+     */
+    @External
+    public void revokeOperator(Address _operator) {
+        Address holder = Context.getCaller();
+        Context.require(!holder.equals(_operator), "revoking self as operator");
+        operators.at(holder).set(_operator, null);
+        RevokedOperator(_operator, holder);
+    }
+
+    /**
+     * Transfers _value amount of tokens from _from to _to, where the caller must be an operator of _from.
+     * No allowance is used.
+     */
+    @External
+    public boolean operatorSend(Address _from, Address _to, BigInteger _value) {
+        Context.require(isOperatorFor(Context.getCaller(), _from), "caller is not an operator for holder");
+        _transfer(_from, _to, _value);
+        return true;
+    }
+
+    @EventLog(indexed = 2)
+    public void AuthorizedOperator(Address _operator, Address _holder) {}
+
+    @EventLog(indexed = 2)
+    public void RevokedOperator(Address _operator, Address _holder) {}
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2022 HAVAH Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.havah.contract.token.hsp20;
+
+import score.Address;
+import score.ByteArrayObjectWriter;
+import score.Context;
+import score.DictDB;
+import score.VarDB;
+import score.annotation.External;
+
+import java.math.BigInteger;
+
+/**
+ * HSP20 extension that lets an owner approve a spender with a signed message instead of a transaction,
+ * so that the spender can set the allowance and spend it in the same transaction.
+ * <p>
+ * The owner signs {@link #permitHash} with the secp256k1 key of the owner account.
+ * Each permit consumes the current nonce of the owner, so a signature can be used only once.
+ * <p>
+ * The signed message is bound to a domain: the type string, the network ID given at deployment
+ * and the token address. So a signature for this token cannot be replayed on another token,
+ * nor on a copy of this token deployed at the same address on another network.
+ */
+public abstract class HSP20Permit extends HSP20Basic {
+    private static final String PERMIT_TYPE = "HSP20Permit";
+    // owner => nonce of the next permit
+    private final DictDB<Address, BigInteger> nonces = Context.newDictDB("permit_nonces", BigInteger.class);
+    // ID of the network where the token is deployed, signed as a part of the domain
+    private final VarDB<BigInteger> networkId = Context.newVarDB("permit_nid", BigInteger.class);
+
+    /**
+     * @param _nid the ID of the network where the token is deployed
+     */
+    public HSP20Permit(String _name, String _symbol, int _decimals, BigInteger _nid) {
+        super(_name, _symbol, _decimals);
+        // initialize the network ID only at first deployment
+        if (networkId.get() == null) {
+            Context.require(_nid.signum() > 0, "Invalid network ID");
+            networkId.set(_nid);
+        }
+    }
+
+    /**
+     * Returns the network ID signed in the permits of this token.
+     */
+    @External(readonly = true)
+    public BigInteger networkId() {
+        return networkId.get();
+    }
+
+    /**
+     * Returns the nonce to be signed in the next permit of _owner.
+     */
+    @External(readonly = true)
+    public BigInteger nonces(Address _owner) {
+        return nonces.getOrDefault(_owner, BigInteger.ZERO);
+    }
+
+    /**
+     * Returns the SHA3-256 hash of the permit message with the current nonce of _owner.
+     * The message is the RLP list of the type string, the network ID, the token address, _owner, _spender,
+     * _value, the nonce and _deadline.
+     */
+    @External(readonly = true)
+    public byte[] permitHash(Address _owner, Address _spender, BigInteger _value, BigInteger _deadline) {
+        return permitHash(_owner, _spender, _value, nonces(_owner), _deadline);
+    }
+
+    private byte[] permitHash(Address owner, Address spender, BigInteger value, BigInteger nonce,
+                              BigInteger deadline) {
+        ByteArrayObjectWriter writer = Context.newByteArrayObjectWriter("RLPn");
+        writer.beginList(8);
+        writer.write(PERMIT_TYPE);
+        writer.write(networkId.get());
+        writer.write(Context.getAddress());
+        writer.write(owner);
+        writer.write(spender);
+        writer.write(value);
+        writer.write(nonce);
+        writer.write(deadline);
+        writer.end();
+        return Context.hash("sha3-256", writer.toByteArray());
+    }
+
+    /**
+     * Sets _value as the allowance of _spender over the tokens of _owner, given the signature of _owner.
+     *
+     * @param _deadline  the last block timestamp, in microseconds, at which the permit is valid
+     * @param _signature the 65-byte recoverable secp256k1 signature of {@link #permitHash}
+     */
+    @External
+    public void permit(Address _owner, Address _spender, BigInteger _value, BigInteger _deadline, byte[] _signature) {
+        Context.require(_value.signum() >= 0, "_value needs to be positive");
+        Context.require(BigInteger.valueOf(Context.getBlockTimestamp()).compareTo(_deadline) <= 0, "permit expired");
+
+        BigInteger nonce = nonces(_owner);
+        byte[] hash = permitHash(_owner, _spender, _value, nonce, _deadline);
+        byte[] publicKey = Context.recoverKey("ecdsa-secp256k1", hash, _signature, false);
+        Context.require(_owner.equals(Context.getAddressFromKey(publicKey)), "invalid signature");
+
+        nonces.set(_owner, nonce.add(BigInteger.ONE));
+        _approve(_owner, _spender, _value);
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2022 HAVAH Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.havah.contract.token.hsp20;
+
+import io.havah.contract.util.Checkpoint;
+import io.havah.contract.util.Checkpoints;
+import score.Address;
+import score.Context;
+import score.VarDB;
+import score.annotation.EventLog;
+import score.annotation.External;
+
+import java.math.BigInteger;
+
+/**
+ * HSP20 extension that records the balances and the total supply at snapshots.
+ * <p>
+ * {@link #_snapshot()} only increments the current snapshot ID. The first time a balance changes after that,
+ * the value before the change is recorded with the current ID, so accounts that do not move tokens
+ * have no checkpoint. A value at a snapshot is the first checkpoint at or after the snapshot ID,
+ * or the current value if there is none, which is found by a binary search.
+ */
+public abstract class HSP20Snapshot extends HSP20Basic {
+    private final VarDB<BigInteger> currentSnapshotId = Context.newVarDB("snapshot_id", BigInteger.class);
+    private final Checkpoints balanceSnapshots = new Checkpoints("snapshot_balances");
+    // the total supply is kept as the checkpoints of the zero address
+    private final Checkpoints totalSupplySnapshots = new Checkpoints("snapshot_supply");
+
+    public HSP20Snapshot(String _name, String _symbol, int _decimals) {
+        super(_name, _symbol, _decimals);
+    }
+
+    /**
+     * Creates a new snapshot and returns its ID.
+     */
+    protected BigInteger _snapshot() {
+        BigInteger id = getCurrentSnapshotId().add(BigInteger.ONE);
+        currentSnapshotId.set(id);
+        Snapshot(id);
+        return id;
+    }
+
+    @External(readonly = true)
+    public BigInteger getCurrentSnapshotId() {
+        return currentSnapshotId.getOrDefault(BigInteger.ZERO);
+    }
+
+    /**
+     * Returns the balance of _owner at the time _snapshotId was created.
+     */
+    @External(readonly = true)
+    public BigInteger balanceOfAt(Address _owner, BigInteger _snapshotId) {
+        Checkpoint checkpoint = balanceSnapshots.lowerLookup(_owner, checkSnapshotId(_snapshotId));
+        return (checkpoint != null) ? checkpoint.getValue() : balanceOf(_owner);
+    }
+
+    /**
+     * Returns the total supply at the time _snapshotId was created.
+     */
+    @External(readonly = true)
+    public BigInteger totalSupplyAt(BigInteger _snapshotId) {
+        Checkpoint checkpoint = totalSupplySnapshots.lowerLookup(ZERO_ADDRESS, checkSnapshotId(_snapshotId));
+        return (checkpoint != null) ? checkpoint.getValue() : totalSupply();
+    }
+
+    private BigInteger checkSnapshotId(BigInteger snapshotId) {
+        Context.require(snapshotId.signum() > 0, "Invalid snapshot id");
+        Context.require(snapshotId.compareTo(getCurrentSnapshotId()) <= 0, "Nonexistent snapshot id");
+        return snapshotId;
+    }
+
+    @Override
+    protected void _beforeTokenTransfer(Address from, Address to, BigInteger value) {
+        super._beforeTokenTransfer(from, to, value);
+        BigInteger id = getCurrentSnapshotId();
+        if (id.signum() == 0) {
+            return;
+        }
+        if (ZERO_ADDRESS.equals(from) || ZERO_ADDRESS.equals(to)) {
+            updateSnapshot(totalSupplySnapshots, ZERO_ADDRESS, id, totalSupply());
+        }
+        if (!ZERO_ADDRESS.equals(from)) {
+            updateSnapshot(balanceSnapshots, from, id, balanceOf(from));
+        }
+        if (!ZERO_ADDRESS.equals(to)) {
+            updateSnapshot(balanceSnapshots, to, id, balanceOf(to));
+        }
+    }
+
+    private static void updateSnapshot(Checkpoints checkpoints, Address account, BigInteger id, BigInteger value) {
+        Checkpoint last = checkpoints.latest(account);
+        if (last == null || last.getKey().compareTo(id) < 0) {
+            checkpoints.push(account, id, value);
+        }
+    }
+
+    @EventLog(indexed = 1)
+    public void Snapshot(BigInteger _id) {}
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright 2022 HAVAH Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.havah.contract.token.hsp20;
+
+import io.havah.contract.util.Checkpoint;
+import io.havah.contract.util.Checkpoints;
+import score.Address;
+import score.Context;
+import score.DictDB;
+import score.annotation.EventLog;
+import score.annotation.External;
+
+import java.math.BigInteger;
+
+/**
+ * HSP20 extension that keeps the voting power of delegates, checkpointed by block height.
+ * <p>
+ * Tokens have no voting power until their holder delegates them, which may be to the holder itself.
+ * {@link #delegate(Address)} moves the whole balance of the caller from the previous delegate to the new one,
+ * and each transfer moves the transferred value between the delegates of the sender and the recipient.
+ * All the changes within a block are merged into a single checkpoint, and a past value is found
+ * by a binary search over the checkpoints of the delegate.
+ */
+public abstract class HSP20Votes extends HSP20Basic {
+    private final DictDB<Address, Address> delegates = Context.newDictDB("delegates", Address.class);
+    private final Checkpoints votes = new Checkpoints("votes");
+    // the total supply is kept as the checkpoints of the zero address
+    private final Checkpoints totalSupplyCheckpoints = new Checkpoints("votes_supply");
+
+    public HSP20Votes(String _name, String _symbol, int _decimals) {
+        super(_name, _symbol, _decimals);
+    }
+
+    /**
+     * Returns the current block height, which is the key of the checkpoints.
+     */
+    @External(readonly = true)
+    public BigInteger clock() {
+        return BigInteger.valueOf(Context.getBlockHeight());
+    }
+
+    /**
+     * Returns the delegate of _account, or the zero address if it has not delegated.
+     */
+    @External(readonly = true)
+    public Address delegates(Address _account) {
+        return delegates.getOrDefault(_account, ZERO_ADDRESS);
+    }
+
+    @External(readonly = true)
+    public BigInteger getVotes(Address _account) {
+        Checkpoint checkpoint = votes.latest(_account);
+        return (checkpoint != null) ? checkpoint.getValue() : BigInteger.ZERO;
+    }
+
+    /**
+     * Returns the voting power of _account at the end of the block _height, which must be already finished.
+     */
+    @External(readonly = true)
+    public BigInteger getPastVotes(Address _account, BigInteger _height) {
+        Checkpoint checkpoint = votes.upperLookup(_account, checkPastHeight(_height));
+        return (checkpoint != null) ? checkpoint.getValue() : BigInteger.ZERO;
+    }
+
+    /**
+     * Returns the total supply at the end of the block _height, which must be already finished.
+     */
+    @External(readonly = true)
+    public BigInteger getPastTotalSupply(BigInteger _height) {
+        Checkpoint checkpoint = totalSupplyCheckpoints.upperLookup(ZERO_ADDRESS, checkPastHeight(_height));
+        return (checkpoint != null) ? checkpoint.getValue() : BigInteger.ZERO;
+    }
+
+    @External(readonly = true)
+    public int numCheckpoints(Address _account) {
+        return votes.length(_account);
+    }
+
+    private BigInteger checkPastHeight(BigInteger height) {
+        Context.require(height.signum() >= 0, "Invalid block height");
+        Context.require(height.compareTo(clock()) < 0, "Future block height");
+        return height;
+    }
+
+    /**
+     * Delegates the voting power of the caller to _delegatee.
+     * Delegating to the zero address removes the voting power of the caller.
+     */
+    @External
+    public void delegate(Address _delegatee) {
+        _delegate(Context.getCaller(), _delegatee);
+    }
+
+    protected void _delegate(Address account, Address delegatee) {
+        Address oldDelegate = delegates(account);
+        if (ZERO_ADDRESS.equals(delegatee)) {
+            delegates.set(account, null);
+        } else {
+            delegates.set(account, delegatee);
+        }
+        DelegateChanged(account, oldDelegate, delegatee);
+        moveVotingPower(oldDelegate, delegatee, balanceOf(account));
+    }
+
+    @Override
+    protected void _beforeTokenTransfer(Address from, Address to, BigInteger value) {
+        super._beforeTokenTransfer(from, to, value);
+        if (ZERO_ADDRESS.equals(from)) {
+            writeCheckpoint(totalSupplyCheckpoints, ZERO_ADDRESS, checkpointedSupply().add(value));
+        } else if (ZERO_ADDRESS.equals(to)) {
+            writeCheckpoint(totalSupplyCheckpoints, ZERO_ADDRESS, checkpointedSupply().subtract(value));
+        }
+        moveVotingPower(delegates(from), delegates(to), value);
+    }
+
+    private BigInteger checkpointedSupply() {
+        // the stored total supply is updated once after all the hooks of a batch mint
+        Checkpoint checkpoint = totalSupplyCheckpoints.latest(ZERO_ADDRESS);
+        return (checkpoint != null) ? checkpoint.getValue() : totalSupply();
+    }
+
+    private void moveVotingPower(Address from, Address to, BigInteger value) {
+        if (from.equals(to) || value.signum() == 0) {
+            return;
+        }
+        if (!ZERO_ADDRESS.equals(from)) {
+            BigInteger previous = getVotes(from);
+            BigInteger current = previous.subtract(value);
+            writeCheckpoint(votes, from, current);
+            DelegateVotesChanged(from, previous, current);
+        }
+        if (!ZERO_ADDRESS.equals(to)) {
+            BigInteger previous = getVotes(to);
+            BigInteger current = previous.add(value);
+            writeCheckpoint(votes, to, current);
+            DelegateVotesChanged(to, previous, current);
+        }
+    }
+
+    private void writeCheckpoint(Checkpoints checkpoints, Address account, BigInteger value) {
+        // a checkpoint at the current height is replaced in place
+        checkpoints.push(account, clock(), value);
+    }
+
+    @EventLog(indexed = 3)
+    public void DelegateChanged(Address _delegator, Address _fromDelegate, Address _toDelegate) {}
+
+    @EventLog(indexed = 1)
+    public void DelegateVotesChanged(Address _delegate, BigInteger _previousVotes, BigInteger _newVotes) {}
+}
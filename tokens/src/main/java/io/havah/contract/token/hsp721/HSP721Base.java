@@ -0,0 +1,228 @@
+/*
+ * Copyright 2022 HAVAH Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.havah.contract.token.hsp721;
+
+import io.havah.contract.token.hsp721.extensions.HSP721Metadata;
+import score.*;
+import score.annotation.EventLog;
+import score.annotation.External;
+import score.annotation.Optional;
+
+import java.math.BigInteger;
+
+/**
+ * Common part of the HSP721 implementations with their own ownership layout:
+ * the name and the symbol, the token URIs, the approvals and the transfer entry points.
+ * <p>
+ * Subclasses provide {@code ownerOf} and {@link #_tokenExists}, and keep the ownership in {@link #_updateOwner}.
+ * A subclass that stores the owner and the approval of a token together overrides
+ * {@link #_getTokenRecord} and {@link #_setTokenRecord} instead.
+ * The approval of a token is cleared, with its {@code Approval} event, only if it was set.
+ */
+public abstract class HSP721Base implements HSP721, HSP721Metadata {
+    protected static final Address ZERO_ADDRESS = new Address(new byte[Address.LENGTH]);
+    private final VarDB<String> name = Context.newVarDB("name", String.class);
+    private final VarDB<String> symbol = Context.newVarDB("symbol", String.class);
+    protected final DictDB<BigInteger, Address> tokenApprovals = Context.newDictDB("token_approvals", Address.class);
+    protected final BranchDB<Address, DictDB<Address, Boolean>> operatorApprovals = Context.newBranchDB("operator_approvals", Boolean.class);
+    // id => token URI
+    protected final DictDB<BigInteger, String> tokenURIs = Context.newDictDB("token_uri", String.class);
+    // URI prefix shared by the tokens without their own URI
+    private final VarDB<String> baseURI = Context.newVarDB("base_uri", String.class);
+
+    public HSP721Base(String _name, String _symbol) {
+        // initialize values only at first deployment
+        if (this.name.get() == null) {
+            this.name.set(_name);
+            this.symbol.set(_symbol);
+        }
+    }
+
+    @External(readonly = true)
+    public String name() {
+        return name.get();
+    }
+
+    @External(readonly = true)
+    public String symbol() {
+        return symbol.get();
+    }
+
+    /**
+     * Returns the radix of the token ID appended to the base URI, 10 by default.
+     */
+    protected int _tokenURIRadix() {
+        return 10;
+    }
+
+    /**
+     * Returns the URI set for `_tokenId` if any, otherwise the base URI followed by the token ID.
+     */
+    @External(readonly = true)
+    public String tokenURI(BigInteger _tokenId) {
+        String tokenURI = tokenURIs.get(_tokenId);
+        if (tokenURI != null) {
+            return tokenURI;
+        }
+        String base = baseURI.get();
+        if (base == null || !_tokenExists(_tokenId)) {
+            return null;
+        }
+        return base + _tokenId.toString(_tokenURIRadix());
+    }
+
+    protected void _setTokenURI(BigInteger _id, String _uri) {
+        Context.require(_uri.length() > 0, "Uri should be set");
+        tokenURIs.set(_id, _uri);
+    }
+
+    /**
+     * Sets the URI prefix of the tokens without their own URI,
+     * so that minting a token does not need to store its URI.
+     */
+    protected void _setBaseURI(String _uri) {
+        Context.require(_uri.length() > 0, "Uri should be set");
+        baseURI.set(_uri);
+    }
+
+    protected String _baseURI() {
+        return baseURI.get();
+    }
+
+    protected abstract boolean _tokenExists(BigInteger tokenId);
+
+    /**
+     * Returns the record of an existing token, assembled from {@code ownerOf} and {@code tokenApprovals} by default.
+     */
+    protected TokenRecord _getTokenRecord(BigInteger tokenId) {
+        Address owner = ownerOf(tokenId);
+        Address approved = tokenApprovals.get(tokenId);
+        // the zero address may be stored by the earlier versions that always cleared the approval
+        return new TokenRecord(owner, ZERO_ADDRESS.equals(approved) ? null : approved, 0);
+    }
+
+    /**
+     * Stores `record` over `previous`. By default, the owner is moved by {@link #_updateOwner}
+     * and the approval is written only if it changed.
+     */
+    protected void _setTokenRecord(BigInteger tokenId, TokenRecord previous, TokenRecord record) {
+        if (!record.getOwner().equals(previous.getOwner())) {
+            _updateOwner(previous.getOwner(), record.getOwner(), tokenId);
+        }
+        if (previous.getApproved() != null && !previous.getApproved().equals(record.getApproved())
+                || previous.getApproved() == null && record.getApproved() != null) {
+            tokenApprovals.set(tokenId, record.getApproved());
+        }
+    }
+
+    /**
+     * Moves `tokenId` from `from` to `to` in the ownership layout of the subclass.
+     * The arguments are validated before this is called.
+     */
+    protected abstract void _updateOwner(Address from, Address to, BigInteger tokenId);
+
+    private boolean isApprovedOrOwner(Address spender, TokenRecord record) {
+        Address owner = record.getOwner();
+        return (spender.equals(owner) || isApprovedForAll(owner, spender) || spender.equals(record.getApproved()));
+    }
+
+    @External(readonly = true)
+    public Address getApproved(BigInteger _tokenId) {
+        return tokenApprovals.getOrDefault(_tokenId, ZERO_ADDRESS);
+    }
+
+    @External(readonly = true)
+    public boolean isApprovedForAll(Address _owner, Address _operator) {
+        return operatorApprovals.at(_owner).getOrDefault(_operator, false);
+    }
+
+    @External
+    public void approve(Address _approved, BigInteger _tokenId) {
+        TokenRecord record = _getTokenRecord(_tokenId);
+        Address owner = record.getOwner();
+        Context.require(!owner.equals(_approved), "Cannot approve owner");
+        Context.require(owner.equals(Context.getCaller()), "Only owner can call this method");
+        // approving the zero address removes the approval
+        Address approved = ZERO_ADDRESS.equals(_approved) ? null : _approved;
+        _setTokenRecord(_tokenId, record, new TokenRecord(owner, approved, record.getFlags()));
+        Approval(owner, _approved, _tokenId);
+    }
+
+    @External
+    public void setApprovalForAll(Address _operator, boolean _approved) {
+        Address owner = Context.getCaller();
+        Context.require(!owner.equals(_operator), "approve to caller");
+        operatorApprovals.at(owner).set(_operator, _approved);
+        ApprovalForAll(owner, _operator, _approved);
+    }
+
+    /**
+     * Clears the approval of `tokenId` owned by `owner`, only if there is one.
+     */
+    protected void _clearApproval(Address owner, BigInteger tokenId) {
+        Address approved = tokenApprovals.get(tokenId);
+        // the zero address may be stored by the earlier versions that always cleared the approval
+        if (approved != null && !ZERO_ADDRESS.equals(approved)) {
+            tokenApprovals.set(tokenId, null);
+            Approval(owner, ZERO_ADDRESS, tokenId);
+        }
+    }
+
+    @External
+    public void transferFrom(Address _from, Address _to, BigInteger _tokenId) {
+        TokenRecord record = _getTokenRecord(_tokenId);
+        Context.require(isApprovedOrOwner(Context.getCaller(), record), "caller is not token owner or approved");
+        _transfer(record, _from, _to, _tokenId);
+    }
+
+    @External
+    public void safeTransferFrom(Address _from, Address _to, BigInteger _tokenId, @Optional byte[] _data) {
+        TokenRecord record = _getTokenRecord(_tokenId);
+        Context.require(isApprovedOrOwner(Context.getCaller(), record), "caller is not token owner or approved");
+        _transfer(record, _from, _to, _tokenId);
+        if (_to.isContract()) {
+            boolean result = (boolean) Context.call(_to, "onHSP721Received", Context.getCaller(), _from, _tokenId,
+                    _data == null ? new byte[]{} : _data);
+            Context.require(result);
+        }
+    }
+
+    // `record` is the current record of `tokenId`, loaded once by the caller
+    private void _transfer(TokenRecord record, Address from, Address to, BigInteger tokenId) {
+        Context.require(record.getOwner().equals(from), "from address is not owner");
+        Context.require(!to.equals(ZERO_ADDRESS), "destination address cannot be zero address");
+        // clear approvals from the previous owner
+        if (record.getApproved() != null) {
+            Approval(from, ZERO_ADDRESS, tokenId);
+        }
+
+        _setTokenRecord(tokenId, record, new TokenRecord(to, null, record.getFlags()));
+        Transfer(from, to, tokenId);
+    }
+
+    @EventLog(indexed = 3)
+    public void Transfer(Address _from, Address _to, BigInteger _tokenId) {
+    }
+
+    @EventLog(indexed = 3)
+    public void Approval(Address _owner, Address _approved, BigInteger _tokenId) {
+    }
+
+    @EventLog(indexed = 2)
+    public void ApprovalForAll(Address _owner, Address _operator, boolean _approved) {
+    }
+}
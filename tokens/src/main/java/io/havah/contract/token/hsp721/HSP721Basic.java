@@ -17,138 +17,232 @@
  package io.havah.contract.token.hsp721;
 
  import io.havah.contract.token.hsp721.extensions.HSP721Enumerable;
- import io.havah.contract.token.hsp721.extensions.HSP721Metadata;
  import io.havah.contract.util.EnumerableMap;
+ import io.havah.contract.util.EnumerableSet;
  import io.havah.contract.util.IntSet;
+ import io.havah.contract.util.OwnerTokenIndex;
+ import io.havah.contract.util.Pages;
  import score.*;
  import score.annotation.EventLog;
  import score.annotation.External;
  import score.annotation.Optional;
+ import scorex.util.ArrayList;
+ import scorex.util.HashMap;
 
  import java.math.BigInteger;
+ import java.util.List;
+ import java.util.Map;
 
- public abstract class HSP721Basic implements HSP721, HSP721Metadata, HSP721Enumerable {
-     protected static final Address ZERO_ADDRESS = new Address(new byte[Address.LENGTH]);
-     private final VarDB<String> name = Context.newVarDB("name", String.class);
-     private final VarDB<String> symbol = Context.newVarDB("symbol", String.class);
+ public abstract class HSP721Basic extends HSP721Base implements HSP721Enumerable {
      protected final DictDB<Address, IntSet> holderTokens = Context.newDictDB("holders", IntSet.class);
+     // compact alternative of holderTokens, used if _useOwnerTokenIndex() returns true
+     protected final OwnerTokenIndex ownerTokens = new OwnerTokenIndex("owned");
      protected final EnumerableMap<BigInteger, Address> tokenOwners = new EnumerableMap<>("owners", BigInteger.class, Address.class);
-     protected final DictDB<BigInteger, Address> tokenApprovals = Context.newDictDB("token_approvals", Address.class);
-     protected final BranchDB<Address, DictDB<Address, Boolean>> operatorApprovals = Context.newBranchDB("operator_approvals", Boolean.class);
-     // id => token URI
-     protected final DictDB<BigInteger, String> tokenURIs = Context.newDictDB("token_uri", String.class);
+     // packed alternative of tokenOwners and tokenApprovals, used if _usePackedTokenRecord() returns true
+     protected final DictDB<BigInteger, TokenRecord> tokenRecords = Context.newDictDB("token_records", TokenRecord.class);
+     protected final EnumerableSet<BigInteger> tokenIds = new EnumerableSet<>("token_ids", BigInteger.class);
 
      public HSP721Basic(String _name, String _symbol) {
-         // initialize values only at first deployment
-         if (this.name.get() == null) {
-             this.name.set(_name);
-             this.symbol.set(_symbol);
-         }
+         super(_name, _symbol);
      }
 
-     @External(readonly = true)
-     public String name() {
-         return name.get();
+     /**
+      * Returns true to keep the tokens of each holder in {@code ownerTokens} instead of {@code holderTokens}.
+      * The two indexes have different storage layouts, so this must not change once a token is minted.
+      */
+     protected boolean _useOwnerTokenIndex() {
+         return false;
      }
 
-     @External(readonly = true)
-     public String symbol() {
-         return symbol.get();
+     /**
+      * Returns true to emit a single {@code ConsecutiveTransfer} for each run of consecutive token IDs
+      * minted to the same recipient by {@link #_mintBatch}, instead of a {@code Transfer} per token.
+      */
+     protected boolean _useConsecutiveTransferEvent() {
+         return false;
      }
 
-     @External(readonly = true)
-     public String tokenURI(BigInteger _tokenId) {
-         return tokenURIs.get(_tokenId);
+     /**
+      * Returns true to keep the owner, the approved address and the flags of each token in a single
+      * {@link TokenRecord} of {@code tokenRecords}, instead of {@code tokenOwners} and {@code tokenApprovals},
+      * so that a transfer reads and writes one entry per token.
+      * The two layouts are not compatible, so this must not change once a token is minted.
+      */
+     protected boolean _usePackedTokenRecord() {
+         return false;
      }
 
      @External(readonly = true)
      public int balanceOf(Address _owner) {
          Context.require(!ZERO_ADDRESS.equals(_owner), "Owner address cannot be zero address");
+         if (_useOwnerTokenIndex()) {
+             return ownerTokens.length(_owner);
+         }
          var tokens = holderTokens.get(_owner);
          return (tokens != null) ? tokens.length() : 0;
      }
 
      @External(readonly = true)
      public Address ownerOf(BigInteger _tokenId) {
+         if (_usePackedTokenRecord()) {
+             return _getTokenRecord(_tokenId).getOwner();
+         }
          return tokenOwners.getOrThrow(_tokenId, "Non-existent token");
      }
 
-     private boolean isApprovedOrOwner(Address spender, BigInteger tokenId) {
-         Address owner = ownerOf(tokenId);
-         return (spender.equals(owner) || isApprovedForAll(owner, spender) || getApproved(tokenId).equals(spender));
-     }
-
-     protected void _setTokenURI(BigInteger _id, String _uri) {
-         Context.require(_uri.length() > 0, "Uri should be set");
-         tokenURIs.set(_id, _uri);
-     }
-
-     private boolean checkOnHSP721Received(Address from, Address to,
-                                           BigInteger tokenId, byte[] data) {
-         boolean result = true;
-         if (to.isContract()) {
-             result = (boolean) Context.call(to, "onHSP721Received", Context.getCaller(), from, tokenId, data);
+     /**
+      * Returns the record of an existing token, which is assembled from {@code tokenOwners}
+      * and {@code tokenApprovals} if the packed layout is not used.
+      */
+     @Override
+     protected TokenRecord _getTokenRecord(BigInteger tokenId) {
+         if (_usePackedTokenRecord()) {
+             TokenRecord record = tokenRecords.get(tokenId);
+             if (record == null) {
+                 Context.revert("Non-existent token");
+             }
+             return record;
          }
-         return result;
+         return super._getTokenRecord(tokenId);
      }
 
-     private void safeTransfer(Address from, Address to, BigInteger tokenId, byte[] data) {
-         _transfer(from, to, tokenId);
-         Context.require(checkOnHSP721Received(from, to, tokenId, data == null ? new byte[]{} : data));
+     /**
+      * Stores `record` over `previous` with a single write if the packed layout is used,
+      * moving the token between the token lists of the holders if the owner changed.
+      */
+     @Override
+     protected void _setTokenRecord(BigInteger tokenId, TokenRecord previous, TokenRecord record) {
+         if (!_usePackedTokenRecord()) {
+             super._setTokenRecord(tokenId, previous, record);
+             return;
+         }
+         if (!record.getOwner().equals(previous.getOwner())) {
+             _removeTokenFrom(tokenId, previous.getOwner());
+             _addTokenTo(tokenId, record.getOwner());
+         }
+         tokenRecords.set(tokenId, record);
      }
 
-     @External
-     public void safeTransferFrom(Address _from, Address _to, BigInteger _tokenId, @Optional byte[] _data) {
-         Context.require(isApprovedOrOwner(Context.getCaller(), _tokenId), "caller is not token owner or approved");
-         safeTransfer(_from, _to, _tokenId, _data);
+     @Override
+     protected void _updateOwner(Address from, Address to, BigInteger tokenId) {
+         _removeTokenFrom(tokenId, from);
+         _addTokenTo(tokenId, to);
+         tokenOwners.set(tokenId, to);
      }
 
+     @Override
      @External(readonly = true)
      public Address getApproved(BigInteger _tokenId) {
-         return tokenApprovals.getOrDefault(_tokenId, ZERO_ADDRESS);
+         if (_usePackedTokenRecord()) {
+             TokenRecord record = tokenRecords.get(_tokenId);
+             return (record != null && record.getApproved() != null) ? record.getApproved() : ZERO_ADDRESS;
+         }
+         return super.getApproved(_tokenId);
      }
 
-     @External(readonly = true)
-     public boolean isApprovedForAll(Address _owner, Address _operator) {
-         return operatorApprovals.at(_owner).getOrDefault(_operator, false);
+     /**
+      * Transfers all of `_tokenIds` from `_from` to `_to`.
+      * The operator approval and the token lists of both holders are loaded once for the whole batch.
+      * The batch must not be empty nor contain the same token twice.
+      */
+     @External
+     public void transferFromBatch(Address _from, Address _to, BigInteger[] _tokenIds) {
+         _transferBatch(_from, _to, _tokenIds);
      }
 
+     /**
+      * Transfers all of `_tokenIds` from `_from` to `_to`, and then calls {@code onHSP721Received}
+      * for each token if `_to` is a contract.
+      */
      @External
-     public void approve(Address _approved, BigInteger _tokenId) {
-         Address owner = ownerOf(_tokenId);
-         Context.require(!owner.equals(_approved), "Cannot approve owner");
-         Context.require(owner.equals(Context.getCaller()), "Only owner can call this method");
-         _approve(_approved, _tokenId);
+     public void safeTransferFromBatch(Address _from, Address _to, BigInteger[] _tokenIds, @Optional byte[] _data) {
+         _transferBatch(_from, _to, _tokenIds);
+         if (_to.isContract()) {
+             byte[] data = (_data == null) ? new byte[]{} : _data;
+             Address operator = Context.getCaller();
+             for (BigInteger tokenId : _tokenIds) {
+                 Context.require((boolean) Context.call(_to, "onHSP721Received", operator, _from, tokenId, data));
+             }
+         }
      }
 
+     /**
+      * Transfers `_count` tokens with consecutive IDs from `_start` from `_from` to `_to`.
+      * It works as {@link #transferFromBatch} with the token IDs of the range.
+      */
      @External
-     public void setApprovalForAll(Address _operator, boolean _approved) {
-         Address owner = Context.getCaller();
-         Context.require(!owner.equals(_operator), "approve to caller");
-         operatorApprovals.at(owner).set(_operator, _approved);
-         ApprovalForAll(owner, _operator, _approved);
+     public void transferRange(Address _from, Address _to, BigInteger _start, int _count) {
+         _transferBatch(_from, _to, tokenRange(_start, _count));
      }
 
-     private void _approve(Address approved, BigInteger tokenId) {
-         tokenApprovals.set(tokenId, approved);
-         Approval(ownerOf(tokenId), approved, tokenId);
+     private static BigInteger[] tokenRange(BigInteger start, int count) {
+         Context.require(start.signum() >= 0, "Invalid start");
+         Context.require(count > 0, "Invalid count");
+         BigInteger[] tokenIds = new BigInteger[count];
+         for (int i = 0; i < count; i++) {
+             tokenIds[i] = start.add(BigInteger.valueOf(i));
+         }
+         return tokenIds;
      }
 
-     @External
-     public void transferFrom(Address _from, Address _to, BigInteger _tokenId) {
-         Context.require(isApprovedOrOwner(Context.getCaller(), _tokenId), "caller is not token owner or approved");
-         _transfer(_from, _to, _tokenId);
+     private void _transferBatch(Address from, Address to, BigInteger[] tokenIds) {
+         Context.require(tokenIds.length > 0, "Empty token list");
+         Context.require(!to.equals(ZERO_ADDRESS), "destination address cannot be zero address");
+         Map<BigInteger, Boolean> seen = new HashMap<>();
+         for (BigInteger tokenId : tokenIds) {
+             Context.require(seen.put(tokenId, Boolean.TRUE) == null, "Duplicate token");
+         }
+         Address caller = Context.getCaller();
+         boolean approvedForAll = caller.equals(from) || isApprovedForAll(from, caller);
+         boolean indexed = _useOwnerTokenIndex();
+         IntSet fromTokens = null;
+         IntSet toTokens = null;
+         if (!indexed) {
+             fromTokens = holderTokens.get(from);
+             Context.require(fromTokens != null, "tokens don't exist for this address");
+             toTokens = holderTokens.get(to);
+             if (toTokens == null) {
+                 toTokens = new IntSet(to.toString());
+                 holderTokens.set(to, toTokens);
+             }
+         }
+
+         for (BigInteger tokenId : tokenIds) {
+             TokenRecord record = _getTokenRecord(tokenId);
+             Context.require(record.getOwner().equals(from), "from address is not owner");
+             Context.require(approvedForAll || caller.equals(record.getApproved()), "caller is not token owner or approved");
+
+             if (!indexed) {
+                 fromTokens.remove(tokenId);
+                 toTokens.add(tokenId);
+             }
+             moveTokenRecord(tokenId, record, to);
+         }
+         if (indexed) {
+             List<BigInteger> moved = List.of(tokenIds);
+             ownerTokens.removeAll(from, moved);
+             ownerTokens.addAll(to, moved);
+         } else if (fromTokens.length() == 0) {
+             holderTokens.set(from, null);
+         }
      }
 
-     private void _transfer(Address from, Address to, BigInteger tokenId) {
-         Context.require(ownerOf(tokenId).equals(from), "from address is not owner");
-         Context.require(!to.equals(ZERO_ADDRESS), "destination address cannot be zero address");
-         // clear approvals from the previous owner
-         _approve(ZERO_ADDRESS, tokenId);
+     // moves the record of `tokenId` already moved between the token lists of the holders
+     private void moveTokenRecord(BigInteger tokenId, TokenRecord record, Address to) {
+         Address from = record.getOwner();
+         // clear approvals
+         if (record.getApproved() != null) {
+             Approval(from, ZERO_ADDRESS, tokenId);
+         }
 
-         _removeTokenFrom(tokenId, from);
-         _addTokenTo(tokenId, to);
-         tokenOwners.set(tokenId, to);
+         if (_usePackedTokenRecord()) {
+             tokenRecords.set(tokenId, new TokenRecord(to, null, record.getFlags()));
+         } else {
+             if (record.getApproved() != null) {
+                 tokenApprovals.set(tokenId, null);
+             }
+             tokenOwners.set(tokenId, to);
+         }
          Transfer(from, to, tokenId);
      }
 
@@ -157,6 +251,9 @@
       */
      @External(readonly = true)
      public int totalSupply() {
+         if (_usePackedTokenRecord()) {
+             return tokenIds.length();
+         }
          return tokenOwners.length();
      }
 
@@ -166,6 +263,9 @@
       */
      @External(readonly = true)
      public BigInteger tokenByIndex(int _index) {
+         if (_usePackedTokenRecord()) {
+             return tokenIds.at(_index);
+         }
          return tokenOwners.getKey(_index);
      }
 
@@ -175,10 +275,65 @@
       */
      @External(readonly = true)
      public BigInteger tokenOfOwnerByIndex(Address _owner, int _index) {
+         if (_useOwnerTokenIndex()) {
+             var tokenId = ownerTokens.at(_owner, _index);
+             return (tokenId != null) ? tokenId : BigInteger.ZERO;
+         }
          var tokens = holderTokens.get(_owner);
          return (tokens != null) ? tokens.at(_index) : BigInteger.ZERO;
      }
 
+     /**
+      * Returns up to `_limit` token IDs owned by `_owner`, from the index `_offset` of its token list.
+      * The list is the one of {@code tokenOfOwnerByIndex}, and the page is shorter at its end.
+      */
+     @External(readonly = true)
+     public BigInteger[] tokensOfOwner(Address _owner, int _offset, int _limit) {
+         if (_useOwnerTokenIndex()) {
+             int end = Pages.end(ownerTokens.length(_owner), _offset, _limit);
+             BigInteger[] tokenIds = new BigInteger[Math.max(end - _offset, 0)];
+             for (int i = 0; i < tokenIds.length; i++) {
+                 tokenIds[i] = ownerTokens.at(_owner, _offset + i);
+             }
+             return tokenIds;
+         }
+         var tokens = holderTokens.get(_owner);
+         int end = Pages.end((tokens != null) ? tokens.length() : 0, _offset, _limit);
+         BigInteger[] tokenIds = new BigInteger[Math.max(end - _offset, 0)];
+         for (int i = 0; i < tokenIds.length; i++) {
+             tokenIds[i] = tokens.at(_offset + i);
+         }
+         return tokenIds;
+     }
+
+     /**
+      * Returns up to `_limit` token IDs from the index `_offset` of all the tokens, in the order of {@code tokenByIndex}.
+      */
+     @External(readonly = true)
+     public BigInteger[] tokens(int _offset, int _limit) {
+         int end = Pages.end(totalSupply(), _offset, _limit);
+         BigInteger[] page = new BigInteger[Math.max(end - _offset, 0)];
+         for (int i = 0; i < page.length; i++) {
+             page[i] = tokenByIndex(_offset + i);
+         }
+         return page;
+     }
+
+     /**
+      * Returns the page of {@code tokens} with the owner of each token,
+      * as the list of maps with the `tokenId` and the `owner`.
+      */
+     @External(readonly = true)
+     public List<Map<String, Object>> tokensWithOwners(int _offset, int _limit) {
+         List<Map<String, Object>> page = new ArrayList<>();
+         for (BigInteger tokenId : tokens(_offset, _limit)) {
+             page.add(Map.of(
+                     "tokenId", tokenId,
+                     "owner", ownerOf(tokenId)));
+         }
+         return page;
+     }
+
      /**
       * Mints `tokenId` and transfers it to `to`.
       */
@@ -187,28 +342,167 @@
          Context.require(!_tokenExists(tokenId), "Token already exists");
 
          _addTokenTo(tokenId, to);
-         tokenOwners.set(tokenId, to);
+         setMintedRecord(tokenId, to);
          Transfer(ZERO_ADDRESS, to, tokenId);
      }
 
+     /**
+      * Mints each of `tokenIds` and transfers it to the recipient at the same index of `to`.
+      * The whole batch is validated first, and the token list of each recipient is loaded once.
+      */
+     protected void _mintBatch(Address[] to, BigInteger[] tokenIds) {
+         Context.require(to.length == tokenIds.length, "_to/_tokenIds pairs mismatch");
+         // recipient => tokens to add, in the order of the first appearance of the recipient
+         List<Address> recipients = new ArrayList<>();
+         Map<Address, List<BigInteger>> minted = new HashMap<>();
+         Map<BigInteger, Boolean> seen = new HashMap<>();
+         for (int i = 0; i < to.length; i++) {
+             Context.require(!ZERO_ADDRESS.equals(to[i]), "Destination address cannot be zero address");
+             Context.require(seen.put(tokenIds[i], Boolean.TRUE) == null && !_tokenExists(tokenIds[i]),
+                     "Token already exists");
+             List<BigInteger> tokens = minted.get(to[i]);
+             if (tokens == null) {
+                 tokens = new ArrayList<>();
+                 minted.put(to[i], tokens);
+                 recipients.add(to[i]);
+             }
+             tokens.add(tokenIds[i]);
+         }
+
+         for (Address recipient : recipients) {
+             List<BigInteger> tokens = minted.get(recipient);
+             if (_useOwnerTokenIndex()) {
+                 ownerTokens.addAll(recipient, tokens);
+             } else {
+                 var holder = holderTokens.get(recipient);
+                 if (holder == null) {
+                     holder = new IntSet(recipient.toString());
+                     holderTokens.set(recipient, holder);
+                 }
+                 for (BigInteger tokenId : tokens) {
+                     holder.add(tokenId);
+                 }
+             }
+             for (BigInteger tokenId : tokens) {
+                 setMintedRecord(tokenId, recipient);
+             }
+         }
+
+         for (int i = 0; i < to.length; i++) {
+             int last = i;
+             if (_useConsecutiveTransferEvent()) {
+                 while (last + 1 < to.length && to[last + 1].equals(to[i])
+                         && tokenIds[last + 1].equals(tokenIds[last].add(BigInteger.ONE))) {
+                     last++;
+                 }
+             }
+             if (last > i) {
+                 ConsecutiveTransfer(ZERO_ADDRESS, to[i], tokenIds[i], tokenIds[last]);
+             } else {
+                 Transfer(ZERO_ADDRESS, to[i], tokenIds[i]);
+             }
+             i = last;
+         }
+     }
+
+     private void setMintedRecord(BigInteger tokenId, Address to) {
+         if (_usePackedTokenRecord()) {
+             tokenRecords.set(tokenId, new TokenRecord(to, null, 0));
+             tokenIds.add(tokenId);
+         } else {
+             tokenOwners.set(tokenId, to);
+         }
+     }
+
      /**
       * Destroys `tokenId`.
       */
      protected void _burn(BigInteger tokenId) {
-         Address owner = ownerOf(tokenId);
+         TokenRecord record = _getTokenRecord(tokenId);
+         _removeTokenFrom(tokenId, record.getOwner());
+         removeTokenRecord(tokenId, record);
+     }
+
+     /**
+      * Destroys `count` tokens of `owner` with consecutive IDs from `start`.
+      * The whole range must be owned by `owner`, and the token list of `owner` is loaded once.
+      */
+     protected void _burnRange(Address owner, BigInteger start, int count) {
+         BigInteger[] tokenIds = tokenRange(start, count);
+         TokenRecord[] records = new TokenRecord[count];
+         for (int i = 0; i < count; i++) {
+             records[i] = _getTokenRecord(tokenIds[i]);
+             Context.require(records[i].getOwner().equals(owner), "Token is not owned by the owner");
+         }
+
+         if (_useOwnerTokenIndex()) {
+             ownerTokens.removeAll(owner, List.of(tokenIds));
+         } else {
+             var tokens = holderTokens.get(owner);
+             Context.require(tokens != null, "tokens don't exist for this address");
+             for (BigInteger tokenId : tokenIds) {
+                 tokens.remove(tokenId);
+             }
+             if (tokens.length() == 0) {
+                 holderTokens.set(owner, null);
+             }
+         }
+         for (int i = 0; i < count; i++) {
+             removeTokenRecord(tokenIds[i], records[i]);
+         }
+     }
+
+     // removes the record of `tokenId` already removed from the token list of its owner
+     private void removeTokenRecord(BigInteger tokenId, TokenRecord record) {
+         Address owner = record.getOwner();
          // clear approvals
-         _approve(ZERO_ADDRESS, tokenId);
+         if (record.getApproved() != null) {
+             Approval(owner, ZERO_ADDRESS, tokenId);
+         }
 
-         _removeTokenFrom(tokenId, owner);
-         tokenOwners.remove(tokenId);
+         if (_usePackedTokenRecord()) {
+             tokenRecords.set(tokenId, null);
+             tokenIds.remove(tokenId);
+         } else {
+             if (record.getApproved() != null) {
+                 tokenApprovals.set(tokenId, null);
+             }
+             tokenOwners.remove(tokenId);
+         }
          Transfer(owner, ZERO_ADDRESS, tokenId);
      }
 
+     @Override
      protected boolean _tokenExists(BigInteger tokenId) {
+         if (_usePackedTokenRecord()) {
+             return tokenRecords.get(tokenId) != null;
+         }
          return tokenOwners.contains(tokenId);
      }
 
+     /**
+      * Returns the flags of `tokenId` kept in its record, which are reserved for subclasses.
+      * They are always 0 if the packed layout is not used.
+      */
+     protected int _tokenFlags(BigInteger tokenId) {
+         return _getTokenRecord(tokenId).getFlags();
+     }
+
+     /**
+      * Sets the flags of `tokenId`, which are kept across transfers.
+      * Only the packed layout can store them.
+      */
+     protected void _setTokenFlags(BigInteger tokenId, int flags) {
+         Context.require(_usePackedTokenRecord(), "Flags need the packed token record");
+         TokenRecord record = _getTokenRecord(tokenId);
+         tokenRecords.set(tokenId, new TokenRecord(record.getOwner(), record.getApproved(), flags));
+     }
+
      private void _addTokenTo(BigInteger tokenId, Address to) {
+         if (_useOwnerTokenIndex()) {
+             ownerTokens.add(to, tokenId);
+             return;
+         }
          var tokens = holderTokens.get(to);
          if (tokens == null) {
              tokens = new IntSet(to.toString());
@@ -218,6 +512,10 @@
      }
 
      private void _removeTokenFrom(BigInteger tokenId, Address from) {
+         if (_useOwnerTokenIndex()) {
+             ownerTokens.remove(from, tokenId);
+             return;
+         }
          var tokens = holderTokens.get(from);
          Context.require(tokens != null, "tokens don't exist for this address");
          tokens.remove(tokenId);
@@ -226,15 +524,11 @@
          }
      }
 
-     @EventLog(indexed = 3)
-     public void Transfer(Address _from, Address _to, BigInteger _tokenId) {
-     }
-
-     @EventLog(indexed = 3)
-     public void Approval(Address _owner, Address _approved, BigInteger _tokenId) {
-     }
-
+     /**
+      * Emitted instead of {@code Transfer} for the tokens from `_fromTokenId` to `_toTokenId` (inclusive)
+      * minted to `_to` in a batch, if {@link #_useConsecutiveTransferEvent()} returns true.
+      */
      @EventLog(indexed = 2)
-     public void ApprovalForAll(Address _owner, Address _operator, boolean _approved) {
+     public void ConsecutiveTransfer(Address _from, Address _to, BigInteger _fromTokenId, BigInteger _toTokenId) {
      }
  }
@@ -0,0 +1,210 @@
+/*
+ * Copyright 2022 HAVAH Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.havah.contract.token.hsp721;
+
+import io.havah.contract.token.hsp721.extensions.HSP721Enumerable;
+import score.*;
+import score.annotation.External;
+
+import java.math.BigInteger;
+
+/**
+ * HSP721 implementation for collections minted in consecutive runs of token IDs.
+ * <p>
+ * Token IDs are assigned sequentially from {@link #_startTokenId()}. Minting a run only records
+ * the owner of its first token, so the storage cost does not depend on the run length.
+ * The owner of any other token is found by scanning back to the nearest recorded token.
+ * A run is split lazily: on the first transfer or burn of one of its tokens, the token itself
+ * and the next token are recorded explicitly.
+ * <p>
+ * Storage layout:
+ * <ul>
+ *   <li>{@code next_token_id}: the token ID to be assigned by the next mint</li>
+ *   <li>{@code burned_count}: the number of burned tokens</li>
+ *   <li>{@code run_owners}: token ID => owner, recorded only at run boundaries;
+ *       the zero address marks a burned token</li>
+ *   <li>{@code balances}: owner => number of tokens</li>
+ * </ul>
+ * <p>
+ * The enumeration methods scan the runs when tokens have been burned, so they are meant for readonly calls.
+ */
+public abstract class HSP721Consecutive extends HSP721Base implements HSP721Enumerable {
+    // upper bound of a single run, which bounds the scan of ownerOf
+    protected static final int MAX_MINT_QUANTITY = 1000;
+    private final VarDB<BigInteger> nextTokenId = Context.newVarDB("next_token_id", BigInteger.class);
+    private final VarDB<Integer> burnedCount = Context.newVarDB("burned_count", Integer.class);
+    private final DictDB<BigInteger, Address> runOwners = Context.newDictDB("run_owners", Address.class);
+    private final DictDB<Address, Integer> balances = Context.newDictDB("balances", Integer.class);
+
+    public HSP721Consecutive(String _name, String _symbol) {
+        super(_name, _symbol);
+    }
+
+    /**
+     * Returns the ID of the first minted token.
+     */
+    protected BigInteger _startTokenId() {
+        return BigInteger.ONE;
+    }
+
+    private BigInteger nextTokenId() {
+        return nextTokenId.getOrDefault(_startTokenId());
+    }
+
+    @External(readonly = true)
+    public int balanceOf(Address _owner) {
+        Context.require(!ZERO_ADDRESS.equals(_owner), "Owner address cannot be zero address");
+        return balances.getOrDefault(_owner, 0);
+    }
+
+    @External(readonly = true)
+    public Address ownerOf(BigInteger _tokenId) {
+        Address owner = _ownerOf(_tokenId);
+        Context.require(owner != null, "Non-existent token");
+        return owner;
+    }
+
+    /**
+     * Returns the owner of `tokenId`, or null if the token does not exist.
+     */
+    private Address _ownerOf(BigInteger tokenId) {
+        BigInteger start = _startTokenId();
+        if (tokenId.compareTo(start) < 0 || tokenId.compareTo(nextTokenId()) >= 0) {
+            return null;
+        }
+        Address owner = runOwners.get(tokenId);
+        if (owner != null) {
+            return ZERO_ADDRESS.equals(owner) ? null : owner;
+        }
+        // scan back to the start of the run; a run start is never a burned token
+        BigInteger id = tokenId.subtract(BigInteger.ONE);
+        while (owner == null) {
+            owner = runOwners.get(id);
+            id = id.subtract(BigInteger.ONE);
+        }
+        return owner;
+    }
+
+    protected boolean _tokenExists(BigInteger tokenId) {
+        return _ownerOf(tokenId) != null;
+    }
+
+    @Override
+    protected void _updateOwner(Address from, Address to, BigInteger tokenId) {
+        _splitRunAfter(tokenId, from);
+        runOwners.set(tokenId, to);
+        balances.set(from, balances.getOrDefault(from, 0) - 1);
+        balances.set(to, balances.getOrDefault(to, 0) + 1);
+    }
+
+    /**
+     * Records `owner` for the token right after `tokenId` if it is still part of the same run,
+     * so that the run keeps resolving to `owner` once `tokenId` is recorded on its own.
+     */
+    private void _splitRunAfter(BigInteger tokenId, Address owner) {
+        BigInteger next = tokenId.add(BigInteger.ONE);
+        if (next.compareTo(nextTokenId()) < 0 && runOwners.get(next) == null) {
+            runOwners.set(next, owner);
+        }
+    }
+
+    /**
+     * Mints `quantity` tokens with consecutive IDs and transfers them to `to`.
+     * Only the first token of the run is recorded, and a {@code Transfer} event is fired for each token.
+     *
+     * @return the ID of the first minted token
+     */
+    protected BigInteger _mintConsecutive(Address to, int quantity) {
+        Context.require(!ZERO_ADDRESS.equals(to), "Destination address cannot be zero address");
+        Context.require(quantity > 0 && quantity <= MAX_MINT_QUANTITY, "Invalid quantity");
+
+        BigInteger first = nextTokenId();
+        runOwners.set(first, to);
+        balances.set(to, balances.getOrDefault(to, 0) + quantity);
+        nextTokenId.set(first.add(BigInteger.valueOf(quantity)));
+
+        for (int i = 0; i < quantity; i++) {
+            Transfer(ZERO_ADDRESS, to, first.add(BigInteger.valueOf(i)));
+        }
+        return first;
+    }
+
+    /**
+     * Destroys `tokenId`.
+     */
+    protected void _burn(BigInteger tokenId) {
+        Address owner = ownerOf(tokenId);
+        // clear approvals
+        _clearApproval(owner, tokenId);
+
+        _splitRunAfter(tokenId, owner);
+        runOwners.set(tokenId, ZERO_ADDRESS);
+        balances.set(owner, balances.getOrDefault(owner, 0) - 1);
+        burnedCount.set(burnedCount.getOrDefault(0) + 1);
+        Transfer(owner, ZERO_ADDRESS, tokenId);
+    }
+
+    /**
+     * (Extension) Returns the total amount of tokens stored by the contract.
+     */
+    @External(readonly = true)
+    public int totalSupply() {
+        return nextTokenId().subtract(_startTokenId()).intValue() - burnedCount.getOrDefault(0);
+    }
+
+    /**
+     * (Extension) Returns a token ID at a given index of all the tokens stored by the contract.
+     * Use along with {@code _totalSupply} to enumerate all tokens.
+     */
+    @External(readonly = true)
+    public BigInteger tokenByIndex(int _index) {
+        Context.require(_index >= 0 && _index < totalSupply(), "Index out of bounds");
+        if (burnedCount.getOrDefault(0) == 0) {
+            return _startTokenId().add(BigInteger.valueOf(_index));
+        }
+        BigInteger end = nextTokenId();
+        for (BigInteger id = _startTokenId(); id.compareTo(end) < 0; id = id.add(BigInteger.ONE)) {
+            if (!ZERO_ADDRESS.equals(runOwners.get(id)) && _index-- == 0) {
+                return id;
+            }
+        }
+        return BigInteger.ZERO;
+    }
+
+    /**
+     * (Extension) Returns a token ID owned by owner at a given index of its token list.
+     * Use along with {@code balanceOf} to enumerate all of owner's tokens.
+     */
+    @External(readonly = true)
+    public BigInteger tokenOfOwnerByIndex(Address _owner, int _index) {
+        if (_index < 0 || _index >= balanceOf(_owner)) {
+            return BigInteger.ZERO;
+        }
+        BigInteger end = nextTokenId();
+        Address current = null;
+        for (BigInteger id = _startTokenId(); id.compareTo(end) < 0; id = id.add(BigInteger.ONE)) {
+            Address recorded = runOwners.get(id);
+            if (recorded != null) {
+                current = recorded;
+            }
+            if (_owner.equals(current) && _index-- == 0) {
+                return id;
+            }
+        }
+        return BigInteger.ZERO;
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2022 HAVAH Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.havah.contract.token.hsp721;
+
+import score.*;
+import score.annotation.External;
+
+import java.math.BigInteger;
+
+/**
+ * HSP721 implementation without the enumeration extension.
+ * It keeps a plain owner per token and a token counter per owner,
+ * so minting and transferring a token do not maintain any enumerable index.
+ */
+public abstract class HSP721Lite extends HSP721Base {
+    // id => owner
+    protected final DictDB<BigInteger, Address> owners = Context.newDictDB("owners", Address.class);
+    // owner => number of tokens
+    protected final DictDB<Address, Integer> balances = Context.newDictDB("balances", Integer.class);
+
+    public HSP721Lite(String _name, String _symbol) {
+        super(_name, _symbol);
+    }
+
+    @External(readonly = true)
+    public int balanceOf(Address _owner) {
+        Context.require(!ZERO_ADDRESS.equals(_owner), "Owner address cannot be zero address");
+        return balances.getOrDefault(_owner, 0);
+    }
+
+    @External(readonly = true)
+    public Address ownerOf(BigInteger _tokenId) {
+        Address owner = owners.get(_tokenId);
+        Context.require(owner != null, "Non-existent token");
+        return owner;
+    }
+
+    protected boolean _tokenExists(BigInteger tokenId) {
+        return owners.get(tokenId) != null;
+    }
+
+    @Override
+    protected void _updateOwner(Address from, Address to, BigInteger tokenId) {
+        balances.set(from, balances.getOrDefault(from, 0) - 1);
+        balances.set(to, balances.getOrDefault(to, 0) + 1);
+        owners.set(tokenId, to);
+    }
+
+    /**
+     * Mints `tokenId` and transfers it to `to`.
+     */
+    protected void _mint(Address to, BigInteger tokenId) {
+        Context.require(!ZERO_ADDRESS.equals(to), "Destination address cannot be zero address");
+        Context.require(!_tokenExists(tokenId), "Token already exists");
+
+        balances.set(to, balances.getOrDefault(to, 0) + 1);
+        owners.set(tokenId, to);
+        Transfer(ZERO_ADDRESS, to, tokenId);
+    }
+
+    /**
+     * Destroys `tokenId`.
+     */
+    protected void _burn(BigInteger tokenId) {
+        Address owner = ownerOf(tokenId);
+        // clear approvals
+        _clearApproval(owner, tokenId);
+
+        balances.set(owner, balances.getOrDefault(owner, 0) - 1);
+        owners.set(tokenId, null);
+        Transfer(owner, ZERO_ADDRESS, tokenId);
+    }
+}
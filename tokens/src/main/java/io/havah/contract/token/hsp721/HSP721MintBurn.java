@@ -18,6 +18,7 @@
  import score.Address;
  import score.Context;
  import score.annotation.External;
+ import score.annotation.Optional;
 
  import java.math.BigInteger;
 
@@ -28,10 +29,44 @@
      }
 
      @External
-     public void mint(BigInteger _tokenId, String _uri) {
+     public void mint(BigInteger _tokenId, @Optional String _uri) {
         Context.require(Context.getCaller().equals(Context.getOwner()));
          super._mint(Context.getCaller(), _tokenId);
-         _setTokenURI(_tokenId, _uri);
+         // store the URI only if the token does not use the base URI
+         if (_uri != null && _uri.length() > 0) {
+             _setTokenURI(_tokenId, _uri);
+         } else {
+             Context.require(_baseURI() != null, "Uri should be set");
+         }
+     }
+
+     /**
+      * Mints each of `_tokenIds` to the recipient at the same index of `_to`.
+      * An empty or null entry of `_uris` uses the base URI, and `_uris` may be omitted to use it for all.
+      */
+     @External
+     public void mintBatch(Address[] _to, BigInteger[] _tokenIds, @Optional String[] _uris) {
+         Context.require(Context.getCaller().equals(Context.getOwner()), "Only owner can call this method");
+         Context.require(_uris == null || _uris.length == _tokenIds.length, "_tokenIds/_uris pairs mismatch");
+         super._mintBatch(_to, _tokenIds);
+         boolean useBaseURI = false;
+         for (int i = 0; i < _tokenIds.length; i++) {
+             String uri = (_uris != null) ? _uris[i] : null;
+             if (uri != null && uri.length() > 0) {
+                 _setTokenURI(_tokenIds[i], uri);
+             } else {
+                 useBaseURI = true;
+             }
+         }
+         if (useBaseURI) {
+             Context.require(_baseURI() != null, "Uri should be set");
+         }
+     }
+
+     @External
+     public void setBaseURI(String _uri) {
+         Context.require(Context.getCaller().equals(Context.getOwner()), "Only owner can call this method");
+         _setBaseURI(_uri);
      }
 
      @External
@@ -42,4 +77,12 @@
          Context.require(owner.equals(caller), "Spender is not authorized to transfer tokens");
          super._burn(_tokenId);
      }
+
+     /**
+      * Burns `_count` tokens of the caller with consecutive IDs from `_start`.
+      */
+     @External
+     public void burnRange(BigInteger _start, int _count) {
+         super._burnRange(Context.getCaller(), _start, _count);
+     }
  }
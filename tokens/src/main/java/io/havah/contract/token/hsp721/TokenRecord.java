@@ -0,0 +1,69 @@
+/*
+ * Copyright 2022 HAVAH Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.havah.contract.token.hsp721;
+
+import score.Address;
+import score.ObjectReader;
+import score.ObjectWriter;
+
+/**
+ * The owner, the approved address and the flags of a token, stored together in a single entry.
+ */
+public class TokenRecord {
+    private final Address owner;
+    // null if there is no approved address
+    private final Address approved;
+    private final int flags;
+
+    public TokenRecord(Address owner, Address approved, int flags) {
+        this.owner = owner;
+        this.approved = approved;
+        this.flags = flags;
+    }
+
+    public Address getOwner() {
+        return owner;
+    }
+
+    public Address getApproved() {
+        return approved;
+    }
+
+    public int getFlags() {
+        return flags;
+    }
+
+    // for serialize
+    public static void writeObject(ObjectWriter w, TokenRecord e) {
+        w.beginList(3);
+        w.write(e.owner);
+        w.writeNullable(e.approved);
+        w.write(e.flags);
+        w.end();
+    }
+
+    // for de-serialize
+    public static TokenRecord readObject(ObjectReader r) {
+        r.beginList();
+        TokenRecord record = new TokenRecord(
+                r.readAddress(),
+                r.readNullable(Address.class),
+                r.readInt()
+        );
+        r.end();
+        return record;
+    }
+}
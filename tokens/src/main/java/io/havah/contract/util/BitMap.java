@@ -0,0 +1,61 @@
+/*
+ * Copyright 2022 HAVAH Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.havah.contract.util;
+
+import score.Context;
+import score.DictDB;
+
+import java.math.BigInteger;
+
+/**
+ * A set of non-negative indexes packed into 256-bit words.
+ * <p>
+ * Storage layout, where {@code id} is the name given to the constructor:
+ * <ul>
+ *   <li>{@code <id>}: word index (index / 256) => word whose bit (index % 256) is set for each index in the set</li>
+ * </ul>
+ * Consecutive indexes share a word, so a dense set takes one entry per 256 indexes.
+ */
+public class BitMap {
+    // log2 of the 256 bits of a word
+    private static final int WORD_SHIFT = 8;
+    private static final int BIT_MASK = (1 << WORD_SHIFT) - 1;
+    private final DictDB<BigInteger, BigInteger> words;
+
+    public BitMap(String id) {
+        this.words = Context.newDictDB(id, BigInteger.class);
+    }
+
+    private static BigInteger wordIndex(BigInteger index) {
+        Context.require(index.signum() >= 0, "Invalid index");
+        return index.shiftRight(WORD_SHIFT);
+    }
+
+    private static int bitIndex(BigInteger index) {
+        return index.intValue() & BIT_MASK;
+    }
+
+    public boolean get(BigInteger index) {
+        BigInteger word = words.getOrDefault(wordIndex(index), BigInteger.ZERO);
+        return word.testBit(bitIndex(index));
+    }
+
+    public void set(BigInteger index) {
+        BigInteger wordIndex = wordIndex(index);
+        BigInteger word = words.getOrDefault(wordIndex, BigInteger.ZERO);
+        words.set(wordIndex, word.setBit(bitIndex(index)));
+    }
+}
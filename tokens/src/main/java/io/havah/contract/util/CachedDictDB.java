@@ -0,0 +1,84 @@
+/*
+ * Copyright 2022 HAVAH Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.havah.contract.util;
+
+import score.DictDB;
+import scorex.util.ArrayList;
+import scorex.util.HashMap;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A write-back cache in front of a {@link DictDB}.
+ * Each key is read from the underlying DB at most once, and every write is kept in memory
+ * until {@link #flush()} stores the last value of each modified key exactly once.
+ * <p>
+ * Instances are meant to live in a local variable of a single invocation; values that are
+ * not flushed are discarded.
+ */
+public class CachedDictDB<K, V> {
+    private final DictDB<K, V> db;
+    private final Map<K, V> values = new HashMap<>();
+    // key => modified since the last flush, null if the key was never loaded
+    private final Map<K, Boolean> dirty = new HashMap<>();
+    private final List<K> dirtyKeys = new ArrayList<>();
+
+    public CachedDictDB(DictDB<K, V> db) {
+        this.db = db;
+    }
+
+    public V get(K key) {
+        if (dirty.get(key) == null) {
+            values.put(key, db.get(key));
+            dirty.put(key, false);
+        }
+        return values.get(key);
+    }
+
+    public V getOrDefault(K key, V defaultValue) {
+        V value = get(key);
+        return (value != null) ? value : defaultValue;
+    }
+
+    public void set(K key, V value) {
+        if (!Boolean.TRUE.equals(dirty.get(key))) {
+            dirty.put(key, true);
+            dirtyKeys.add(key);
+        }
+        values.put(key, value);
+    }
+
+    /**
+     * Writes the modified entries back to the underlying DB, in the order they were first modified.
+     */
+    public void flush() {
+        for (K key : dirtyKeys) {
+            write(key, values.get(key));
+            dirty.put(key, false);
+        }
+        dirtyKeys.clear();
+    }
+
+    /**
+     * Stores a single entry to the underlying DB.
+     * Subclasses can override this to keep their own bookkeeping on every stored value.
+     */
+    protected void write(K key, V value) {
+        db.set(key, value);
+    }
+}
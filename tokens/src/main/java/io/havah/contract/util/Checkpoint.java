@@ -0,0 +1,62 @@
+/*
+ * Copyright 2022 HAVAH Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.havah.contract.util;
+
+import score.ObjectReader;
+import score.ObjectWriter;
+
+import java.math.BigInteger;
+
+/**
+ * A value recorded at a key, such as a snapshot ID or a block height.
+ */
+public class Checkpoint {
+    private final BigInteger key;
+    private final BigInteger value;
+
+    public Checkpoint(BigInteger key, BigInteger value) {
+        this.key = key;
+        this.value = value;
+    }
+
+    public BigInteger getKey() {
+        return key;
+    }
+
+    public BigInteger getValue() {
+        return value;
+    }
+
+    // for serialize
+    public static void writeObject(ObjectWriter w, Checkpoint e) {
+        w.beginList(2);
+        w.write(e.key);
+        w.write(e.value);
+        w.end();
+    }
+
+    // for de-serialize
+    public static Checkpoint readObject(ObjectReader r) {
+        r.beginList();
+        Checkpoint checkpoint = new Checkpoint(
+                r.readBigInteger(),
+                r.readBigInteger()
+        );
+        r.end();
+        return checkpoint;
+    }
+}
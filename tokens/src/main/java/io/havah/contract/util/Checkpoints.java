@@ -0,0 +1,118 @@
+/*
+ * Copyright 2022 HAVAH Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.havah.contract.util;
+
+import score.Address;
+import score.Context;
+import score.DictDB;
+
+import java.math.BigInteger;
+
+/**
+ * A list of checkpoints per account, in increasing order of their keys.
+ * <p>
+ * Storage layout, where {@code id} is the name given to the constructor:
+ * <ul>
+ *   <li>{@code <id>_count}: account => number of checkpoints (Integer)</li>
+ *   <li>{@code <id>_entries}: account bytes (21) || index (4, big-endian) => {@link Checkpoint}</li>
+ * </ul>
+ * Lookups are binary searches over the checkpoints of an account, so they read O(log n) entries.
+ */
+public class Checkpoints {
+    private final DictDB<Address, Integer> counts;
+    private final DictDB<byte[], Checkpoint> entries;
+
+    public Checkpoints(String id) {
+        this.counts = Context.newDictDB(id + "_count", Integer.class);
+        this.entries = Context.newDictDB(id + "_entries", Checkpoint.class);
+    }
+
+    public int length(Address account) {
+        return counts.getOrDefault(account, 0);
+    }
+
+    public Checkpoint at(Address account, int index) {
+        return entries.get(Keys.addressIndex(account, index));
+    }
+
+    /**
+     * Returns the last checkpoint of `account`, or null if it has none.
+     */
+    public Checkpoint latest(Address account) {
+        int count = length(account);
+        return (count > 0) ? at(account, count - 1) : null;
+    }
+
+    /**
+     * Records `value` at `key`, which must not be lower than the key of the last checkpoint.
+     * If the last checkpoint has the same key, its value is replaced instead of adding a checkpoint.
+     */
+    public void push(Address account, BigInteger key, BigInteger value) {
+        int count = length(account);
+        if (count > 0) {
+            Checkpoint last = at(account, count - 1);
+            int cmp = last.getKey().compareTo(key);
+            Context.require(cmp <= 0, "Decreasing checkpoint key");
+            if (cmp == 0) {
+                entries.set(Keys.addressIndex(account, count - 1), new Checkpoint(key, value));
+                return;
+            }
+        }
+        entries.set(Keys.addressIndex(account, count), new Checkpoint(key, value));
+        counts.set(account, count + 1);
+    }
+
+    /**
+     * Returns the first checkpoint of `account` whose key is equal to or greater than `key`, or null if there is none.
+     */
+    public Checkpoint lowerLookup(Address account, BigInteger key) {
+        int low = 0;
+        int high = length(account);
+        Checkpoint found = null;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            Checkpoint checkpoint = at(account, mid);
+            if (checkpoint.getKey().compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                found = checkpoint;
+                high = mid;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Returns the last checkpoint of `account` whose key is equal to or lower than `key`, or null if there is none.
+     */
+    public Checkpoint upperLookup(Address account, BigInteger key) {
+        int low = 0;
+        int high = length(account);
+        Checkpoint found = null;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            Checkpoint checkpoint = at(account, mid);
+            if (checkpoint.getKey().compareTo(key) > 0) {
+                high = mid;
+            } else {
+                found = checkpoint;
+                low = mid + 1;
+            }
+        }
+        return found;
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2022 HAVAH Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.havah.contract.util;
+
+import score.Address;
+
+/**
+ * Storage keys shared by the per-account lists of this package.
+ */
+final class Keys {
+    private static final int ADDRESS_INDEX_LENGTH = Address.LENGTH + 4;
+
+    private Keys() {
+    }
+
+    /**
+     * Returns the key of the entry at `index` in the list of `account`:
+     * the account bytes (21) followed by the index (4, big-endian).
+     */
+    static byte[] addressIndex(Address account, int index) {
+        byte[] key = new byte[ADDRESS_INDEX_LENGTH];
+        System.arraycopy(account.toByteArray(), 0, key, 0, Address.LENGTH);
+        key[Address.LENGTH] = (byte) (index >> 24);
+        key[Address.LENGTH + 1] = (byte) (index >> 16);
+        key[Address.LENGTH + 2] = (byte) (index >> 8);
+        key[Address.LENGTH + 3] = (byte) index;
+        return key;
+    }
+}
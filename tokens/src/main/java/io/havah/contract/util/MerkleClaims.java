@@ -0,0 +1,67 @@
+/*
+ * Copyright 2022 HAVAH Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.havah.contract.util;
+
+import score.Context;
+import score.VarDB;
+
+import java.math.BigInteger;
+
+/**
+ * Claims of a distribution committed as a Merkle root, where each leaf has a unique index.
+ * <p>
+ * Storage layout, where {@code id} is the name given to the constructor:
+ * <ul>
+ *   <li>{@code <id>_root}: the current Merkle root</li>
+ *   <li>{@code <id>_claimed}: {@link BitMap} of the claimed indexes</li>
+ * </ul>
+ * The claimed indexes are kept when the root is replaced, so a new distribution should continue
+ * the indexes of the previous ones. Each claim reads and writes a single word of the bitmap
+ * regardless of the number of leaves.
+ */
+public class MerkleClaims {
+    private final VarDB<byte[]> root;
+    private final BitMap claimed;
+
+    public MerkleClaims(String id) {
+        this.root = Context.newVarDB(id + "_root", byte[].class);
+        this.claimed = new BitMap(id + "_claimed");
+    }
+
+    public byte[] getRoot() {
+        return root.get();
+    }
+
+    public void setRoot(byte[] root) {
+        Context.require(root != null && root.length == 32, "Invalid merkle root");
+        this.root.set(root);
+    }
+
+    public boolean isClaimed(BigInteger index) {
+        return claimed.get(index);
+    }
+
+    /**
+     * Marks `index` as claimed if `leaf` is in the tree of the current root, and reverts otherwise.
+     */
+    public void claim(BigInteger index, byte[] leaf, byte[][] proof) {
+        byte[] currentRoot = getRoot();
+        Context.require(currentRoot != null, "No merkle root");
+        Context.require(!claimed.get(index), "Already claimed");
+        Context.require(MerkleProof.verify(proof, currentRoot, leaf), "Invalid proof");
+        claimed.set(index);
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2022 HAVAH Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.havah.contract.util;
+
+import score.Context;
+
+import java.util.Arrays;
+
+/**
+ * Verification of Merkle proofs over SHA3-256.
+ * <p>
+ * Each parent node is the hash of its two children concatenated in ascending byte order,
+ * so a proof is the list of the sibling hashes from the leaf up to the root, without their positions.
+ */
+public class MerkleProof {
+    private MerkleProof() {
+    }
+
+    /**
+     * Returns true if `leaf` is a leaf of the tree of `root`, given the sibling hashes in `proof`.
+     */
+    public static boolean verify(byte[][] proof, byte[] root, byte[] leaf) {
+        byte[] computed = leaf;
+        for (byte[] sibling : proof) {
+            computed = hashPair(computed, sibling);
+        }
+        return Arrays.equals(computed, root);
+    }
+
+    public static byte[] hashPair(byte[] a, byte[] b) {
+        byte[] data = new byte[a.length + b.length];
+        if (compare(a, b) <= 0) {
+            System.arraycopy(a, 0, data, 0, a.length);
+            System.arraycopy(b, 0, data, a.length, b.length);
+        } else {
+            System.arraycopy(b, 0, data, 0, b.length);
+            System.arraycopy(a, 0, data, b.length, a.length);
+        }
+        return Context.hash("sha3-256", data);
+    }
+
+    private static int compare(byte[] a, byte[] b) {
+        int length = Math.min(a.length, b.length);
+        for (int i = 0; i < length; i++) {
+            int cmp = (a[i] & 0xff) - (b[i] & 0xff);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return a.length - b.length;
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2022 HAVAH Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.havah.contract.util;
+
+import score.Address;
+import score.Context;
+import score.DictDB;
+
+import java.math.BigInteger;
+import java.util.List;
+
+/**
+ * An enumerable list of token IDs per owner, keyed by the raw owner address.
+ * <p>
+ * Storage layout, where {@code id} is the name given to the constructor:
+ * <ul>
+ *   <li>{@code <id>_count}: owner => number of tokens (Integer); absent if zero</li>
+ *   <li>{@code <id>_tokens}: owner bytes (21) || index (4, big-endian) => token ID (BigInteger)</li>
+ *   <li>{@code <id>_position}: token ID => index in the list of its owner (Integer)</li>
+ * </ul>
+ * The tokens of an owner are stored at indexes {@code 0..count-1}.
+ * Removing a token moves the last token of the owner into the freed index.
+ */
+public class OwnerTokenIndex {
+    private final DictDB<Address, Integer> counts;
+    private final DictDB<byte[], BigInteger> tokens;
+    private final DictDB<BigInteger, Integer> positions;
+
+    public OwnerTokenIndex(String id) {
+        this.counts = Context.newDictDB(id + "_count", Integer.class);
+        this.tokens = Context.newDictDB(id + "_tokens", BigInteger.class);
+        this.positions = Context.newDictDB(id + "_position", Integer.class);
+    }
+
+    public int length(Address owner) {
+        return counts.getOrDefault(owner, 0);
+    }
+
+    /**
+     * Returns the token at `index` of the list of `owner`, or null if the index is out of range.
+     */
+    public BigInteger at(Address owner, int index) {
+        if (index < 0) {
+            return null;
+        }
+        return tokens.get(Keys.addressIndex(owner, index));
+    }
+
+    public void add(Address owner, BigInteger tokenId) {
+        int count = length(owner);
+        tokens.set(Keys.addressIndex(owner, count), tokenId);
+        positions.set(tokenId, count);
+        counts.set(owner, count + 1);
+    }
+
+    /**
+     * Appends all of `tokenIds` to the list of `owner`, reading and writing its count once,
+     * or not at all if `tokenIds` is empty.
+     */
+    public void addAll(Address owner, List<BigInteger> tokenIds) {
+        if (tokenIds.isEmpty()) {
+            return;
+        }
+        int count = length(owner);
+        for (BigInteger tokenId : tokenIds) {
+            tokens.set(Keys.addressIndex(owner, count), tokenId);
+            positions.set(tokenId, count);
+            count++;
+        }
+        counts.set(owner, count);
+    }
+
+    public void remove(Address owner, BigInteger tokenId) {
+        Integer position = positions.get(tokenId);
+        Context.require(position != null, "tokens don't exist for this address");
+        int last = length(owner) - 1;
+        if (position != last) {
+            // move the last token into the freed index
+            BigInteger lastTokenId = tokens.get(Keys.addressIndex(owner, last));
+            tokens.set(Keys.addressIndex(owner, position), lastTokenId);
+            positions.set(lastTokenId, position);
+        }
+        tokens.set(Keys.addressIndex(owner, last), null);
+        positions.set(tokenId, null);
+        counts.set(owner, last > 0 ? last : null);
+    }
+
+    /**
+     * Removes all of `tokenIds` from the list of `owner`, reading and writing its count once,
+     * or not at all if `tokenIds` is empty.
+     */
+    public void removeAll(Address owner, List<BigInteger> tokenIds) {
+        if (tokenIds.isEmpty()) {
+            return;
+        }
+        int count = length(owner);
+        for (BigInteger tokenId : tokenIds) {
+            Integer position = positions.get(tokenId);
+            Context.require(position != null, "tokens don't exist for this address");
+            int last = count - 1;
+            if (position != last) {
+                // move the last token into the freed index
+                BigInteger lastTokenId = tokens.get(Keys.addressIndex(owner, last));
+                tokens.set(Keys.addressIndex(owner, position), lastTokenId);
+                positions.set(lastTokenId, position);
+            }
+            tokens.set(Keys.addressIndex(owner, last), null);
+            positions.set(tokenId, null);
+            count = last;
+        }
+        counts.set(owner, count > 0 ? count : null);
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2022 HAVAH Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.havah.contract.util;
+
+import score.Context;
+
+/**
+ * Bounds of the pages returned by the bulk views, which read one entry per item.
+ */
+public final class Pages {
+    // the maximum number of items returned by a page
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private Pages() {
+    }
+
+    /**
+     * Returns the end index (exclusive) of the page of up to `limit` items from `offset`,
+     * out of `length` items. It is not greater than `length`, and the page is empty if it is not greater than `offset`.
+     */
+    public static int end(int length, int offset, int limit) {
+        Context.require(offset >= 0, "Invalid offset");
+        Context.require(limit > 0 && limit <= MAX_PAGE_SIZE, "Invalid limit");
+        return (offset < length - limit) ? offset + limit : length;
+    }
+}
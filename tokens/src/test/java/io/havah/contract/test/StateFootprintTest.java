@@ -0,0 +1,114 @@
+/*
+ * Copyright 2022 HAVAH Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.havah.contract.test;
+
+import com.iconloop.score.test.Account;
+import com.iconloop.score.test.Score;
+import com.iconloop.score.test.ServiceManager;
+import com.iconloop.score.test.TestBase;
+import io.havah.contract.token.hsp1155.HSP1155SampleToken;
+import io.havah.contract.token.hsp20.HSP20Basic;
+import org.junit.jupiter.api.Test;
+import score.Context;
+
+import java.math.BigInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks that the entries of emptied balances and allowances are deleted from the state.
+ */
+public class StateFootprintTest extends TestBase {
+    private static final ServiceManager sm = getServiceManager();
+    private static final Account owner = sm.createAccount();
+    private static final int ACCOUNTS = 20;
+
+    public static class HSP20SampleToken extends HSP20Basic {
+        public HSP20SampleToken(String _name, String _symbol, int _decimals, BigInteger _totalSupply) {
+            super(_name, _symbol, _decimals);
+            _mint(Context.getCaller(), _totalSupply);
+        }
+    }
+
+    private static Account[] createAccounts() {
+        Account[] accounts = new Account[ACCOUNTS];
+        for (int i = 0; i < accounts.length; i++) {
+            accounts[i] = sm.createAccount();
+        }
+        return accounts;
+    }
+
+    private static StorageStats total(StorageProfiler profiler, String... methods) {
+        StorageStats total = new StorageStats();
+        for (String method : methods) {
+            total.add(profiler.getTotalStats(method));
+        }
+        return total;
+    }
+
+    @Test
+    void hsp20() throws Exception {
+        Score tokenScore = sm.deploy(owner, HSP20SampleToken.class, "MyHSP20Token", "MIT", 18, BigInteger.valueOf(1000));
+        var profiler = new StorageProfiler(tokenScore);
+        var spender = sm.createAccount();
+        Account[] accounts = createAccounts();
+        BigInteger value = BigInteger.TEN;
+        BigInteger half = BigInteger.valueOf(5);
+
+        for (Account account : accounts) {
+            profiler.invoke(owner, "transfer", account.getAddress(), value);
+            profiler.invoke(account, "approve", spender.getAddress(), half);
+        }
+        StorageStats funded = total(profiler, "transfer", "approve");
+        assertEquals(2 * ACCOUNTS, funded.getEntries());
+
+        // spending the whole allowance and the whole balance deletes the entries
+        for (Account account : accounts) {
+            profiler.invoke(spender, "transferFrom", account.getAddress(), owner.getAddress(), half);
+            profiler.invoke(account, "transfer", owner.getAddress(), half);
+        }
+        assertEquals(BigInteger.ZERO, profiler.call("allowance", accounts[0].getAddress(), spender.getAddress()));
+        assertEquals(BigInteger.ZERO, profiler.call("balanceOf", accounts[0].getAddress()));
+        assertEquals(BigInteger.valueOf(1000), profiler.call("balanceOf", owner.getAddress()));
+
+        StorageStats total = total(profiler, "transfer", "approve", "transferFrom");
+        assertEquals(0, total.getEntries());
+        assertEquals(0, total.getStoredBytes());
+    }
+
+    @Test
+    void hsp1155() throws Exception {
+        Score tokenScore = sm.deploy(owner, HSP1155SampleToken.class);
+        BigInteger id = BigInteger.ONE;
+        BigInteger supply = BigInteger.valueOf(ACCOUNTS);
+        tokenScore.invoke(owner, "mint", id, supply, "https://nft.havah.io/1");
+        var profiler = new StorageProfiler(tokenScore);
+        Account[] accounts = createAccounts();
+
+        for (Account account : accounts) {
+            profiler.invoke(owner, "safeTransferFrom", owner.getAddress(), account.getAddress(), id, BigInteger.ONE, new byte[0]);
+        }
+        // the balance of the owner is deleted as well
+        assertEquals(ACCOUNTS - 1, profiler.getTotalStats("safeTransferFrom").getEntries());
+
+        for (Account account : accounts) {
+            profiler.invoke(account, "burn", id, BigInteger.ONE);
+        }
+        assertEquals(BigInteger.ZERO, profiler.call("balanceOf", accounts[0].getAddress(), id));
+        assertEquals(-1, total(profiler, "safeTransferFrom", "burn").getEntries());
+        assertEquals(-supply.toByteArray().length, total(profiler, "safeTransferFrom", "burn").getStoredBytes());
+    }
+}
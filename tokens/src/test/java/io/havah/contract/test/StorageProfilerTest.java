@@ -0,0 +1,88 @@
+/*
+ * Copyright 2022 HAVAH Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.havah.contract.test;
+
+import com.iconloop.score.test.Account;
+import com.iconloop.score.test.Score;
+import com.iconloop.score.test.ServiceManager;
+import com.iconloop.score.test.TestBase;
+import io.havah.contract.token.hsp20.HSP20Basic;
+import io.havah.contract.token.hsp721.HSP721MintBurn;
+import org.junit.jupiter.api.Test;
+import score.Address;
+import score.Context;
+
+import java.math.BigInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class StorageProfilerTest extends TestBase {
+    private static final ServiceManager sm = getServiceManager();
+    private static final Account owner = sm.createAccount();
+
+    public static class HSP20SampleToken extends HSP20Basic {
+        public HSP20SampleToken(String _name, String _symbol, int _decimals, BigInteger _totalSupply) {
+            super(_name, _symbol, _decimals);
+            _mint(Context.getCaller(), _totalSupply);
+        }
+    }
+
+    @Test
+    void transfer() throws Exception {
+        Score tokenScore = sm.deploy(owner, HSP20SampleToken.class, "MyHSP20Token", "MIT", 18, BigInteger.valueOf(1000));
+        var profiler = new StorageProfiler(tokenScore);
+        var alice = sm.createAccount();
+        var bob = sm.createAccount();
+
+        var stats = profiler.invoke(owner, "transfer", alice.getAddress(), BigInteger.valueOf(100));
+        // balances of the sender and the recipient
+        assertEquals(2, stats.getGets());
+        assertEquals(2, stats.getSets());
+        assertEquals(BigInteger.valueOf(1000).toByteArray().length, stats.getBytesRead());
+        assertEquals(BigInteger.valueOf(900).toByteArray().length + BigInteger.valueOf(100).toByteArray().length,
+                stats.getBytesWritten());
+        assertEquals(1, stats.getEvents());
+
+        profiler.invoke(owner, "transferBatch",
+                new Address[]{alice.getAddress(), bob.getAddress(), alice.getAddress()},
+                new BigInteger[]{BigInteger.ONE, BigInteger.ONE, BigInteger.ONE});
+        assertEquals(3, profiler.getLastStats().getSets());
+        assertEquals(3, profiler.getLastStats().getEvents());
+
+        assertEquals(BigInteger.valueOf(102), profiler.call("balanceOf", alice.getAddress()));
+        assertEquals(1, profiler.getLastStats().getGets());
+        assertEquals(0, profiler.getLastStats().getSets());
+        assertEquals(1, profiler.getCallCount("transfer"));
+
+        String report = profiler.report();
+        assertTrue(report.startsWith("{\"methods\":[{\"method\":\"transfer\",\"calls\":1,\"gets\":2,\"sets\":2,"), report);
+        assertTrue(report.contains("{\"method\":\"balanceOf\",\"calls\":1,\"gets\":1,\"sets\":0,"), report);
+    }
+
+    @Test
+    void nestedDBs() throws Exception {
+        Score tokenScore = sm.deploy(owner, HSP721MintBurn.class, "MyHSP721Token", "NFT");
+        var profiler = new StorageProfiler(tokenScore);
+
+        profiler.invoke(owner, "mint", BigInteger.ONE, "https://nft.havah.io/1");
+        profiler.invoke(owner, "mint", BigInteger.TWO, "https://nft.havah.io/2");
+        assertEquals(2, profiler.call("balanceOf", owner.getAddress()));
+        // the IntSet of the holder and the size of the array in its EnumerableSet
+        assertEquals(2, profiler.getLastStats().getGets());
+    }
+}
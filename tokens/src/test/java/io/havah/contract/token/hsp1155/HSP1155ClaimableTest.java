@@ -0,0 +1,88 @@
+/*
+ * Copyright 2022 HAVAH Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.havah.contract.token.hsp1155;
+
+import com.iconloop.score.test.Account;
+import com.iconloop.score.test.Score;
+import com.iconloop.score.test.ServiceManager;
+import com.iconloop.score.test.TestBase;
+import io.havah.contract.test.MerkleTree;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class HSP1155ClaimableTest extends TestBase {
+    private static final ServiceManager sm = getServiceManager();
+    private static final Account owner = sm.createAccount();
+    private static final Account alice = sm.createAccount();
+    private static final Account bob = sm.createAccount();
+    private static final BigInteger tokenA = BigInteger.valueOf(1);
+    private static final BigInteger tokenB = BigInteger.valueOf(2);
+    private Score score;
+    private MerkleTree tree;
+
+    public static class HSP1155ClaimableToken extends HSP1155Claimable {
+    }
+
+    @BeforeEach
+    void setup() throws Exception {
+        score = sm.deploy(owner, HSP1155ClaimableToken.class);
+        List<byte[]> leaves = new ArrayList<>();
+        leaves.add(HSP1155Claimable.claimLeaf(BigInteger.ZERO, alice.getAddress(), tokenA, BigInteger.TEN));
+        leaves.add(HSP1155Claimable.claimLeaf(BigInteger.ONE, alice.getAddress(), tokenB, BigInteger.ONE));
+        leaves.add(HSP1155Claimable.claimLeaf(BigInteger.TWO, bob.getAddress(), tokenA, BigInteger.TWO));
+        tree = new MerkleTree(leaves);
+    }
+
+    @Test
+    void testClaim() {
+        assertThrows(AssertionError.class, () -> score.invoke(alice, "setMerkleRoot", tree.getRoot()));
+        score.invoke(owner, "setMerkleRoot", tree.getRoot());
+
+        score.invoke(alice, "claim", BigInteger.ZERO, tokenA, BigInteger.TEN, tree.getProof(0));
+        score.invoke(alice, "claim", BigInteger.ONE, tokenB, BigInteger.ONE, tree.getProof(1));
+        score.invoke(bob, "claim", BigInteger.TWO, tokenA, BigInteger.TWO, tree.getProof(2));
+        assertEquals(BigInteger.TEN, score.call("balanceOf", alice.getAddress(), tokenA));
+        assertEquals(BigInteger.ONE, score.call("balanceOf", alice.getAddress(), tokenB));
+        assertEquals(BigInteger.TWO, score.call("balanceOf", bob.getAddress(), tokenA));
+        assertTrue((Boolean) score.call("isClaimed", BigInteger.TWO));
+
+        // each index can be claimed only once
+        assertThrows(AssertionError.class, () ->
+                score.invoke(alice, "claim", BigInteger.ZERO, tokenA, BigInteger.TEN, tree.getProof(0)));
+    }
+
+    @Test
+    void testInvalidClaim() {
+        score.invoke(owner, "setMerkleRoot", tree.getRoot());
+
+        // the token ID is a part of the leaf
+        assertThrows(AssertionError.class, () ->
+                score.invoke(alice, "claim", BigInteger.ZERO, tokenB, BigInteger.TEN, tree.getProof(0)));
+        assertThrows(AssertionError.class, () ->
+                score.invoke(bob, "claim", BigInteger.ZERO, tokenA, BigInteger.TEN, tree.getProof(0)));
+        assertFalse((Boolean) score.call("isClaimed", BigInteger.ZERO));
+        assertEquals(BigInteger.ZERO, score.call("balanceOf", alice.getAddress(), tokenA));
+    }
+}
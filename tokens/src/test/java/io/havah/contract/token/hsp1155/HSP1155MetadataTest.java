@@ -24,6 +24,7 @@ import score.Address;
 import java.math.BigInteger;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.verify;
@@ -117,4 +118,33 @@ public class HSP1155MetadataTest extends MultiTokenTest {
         assertThrows(AssertionError.class, () ->
                 score.invoke(eve, "setTokenURI", newId, newURI));
     }
+
+    @Test
+    void testBaseURI() {
+        BigInteger supply = BigInteger.valueOf(100);
+        BigInteger id = BigInteger.valueOf(0x4cce0);
+
+        // mint with an empty URI requires the base URI
+        assertThrows(AssertionError.class, () ->
+                score.invoke(owner, "mint", id, supply, ""));
+        assertThrows(AssertionError.class, () ->
+                score.invoke(eve, "setBaseURI", "https://craft.network/{id}.json"));
+        score.invoke(owner, "setBaseURI", "https://craft.network/{id}.json");
+
+        score.invoke(owner, "mint", id, supply, "");
+        String expectedUri = "https://craft.network/000000000000000000000000000000000000000000000000000000000004cce0.json";
+        assertEquals(expectedUri, score.call("uri", id));
+        assertEquals(supply, score.call("balanceOf", owner.getAddress(), id));
+
+        // per-id URI overrides the base URI
+        BigInteger newId = mintToken(supply);
+        assertEquals("https://craft.network/" + newId, score.call("uri", newId));
+        score.invoke(owner, "setTokenURI", id, "ipfs://override");
+        assertEquals("ipfs://override", score.call("uri", id));
+    }
+
+    @Test
+    void testNoURI() {
+        assertNull(score.call("uri", BigInteger.ONE));
+    }
 }
@@ -25,6 +25,7 @@ import score.ObjectReader;
 
 import java.math.BigInteger;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.*;
@@ -237,6 +238,42 @@ public class HSP1155TransferTest extends MultiTokenTest {
         }
     }
 
+    @Test
+    void safeBatchTransferFromDuplicateIds() {
+        BigInteger supply = BigInteger.valueOf(100);
+        BigInteger id0 = mintToken(supply);
+        BigInteger id1 = mintToken(supply);
+        reset(spy);
+
+        BigInteger[] ids = {id0, id1, id0, id0};
+        BigInteger[] values = {BigInteger.valueOf(10), BigInteger.valueOf(20), BigInteger.valueOf(30), BigInteger.ZERO};
+        score.invoke(owner, "safeBatchTransferFrom", owner.getAddress(), alice.getAddress(), ids, values, "test".getBytes());
+
+        assertEquals(BigInteger.valueOf(60), score.call("balanceOf", owner.getAddress(), id0));
+        assertEquals(BigInteger.valueOf(40), score.call("balanceOf", alice.getAddress(), id0));
+        assertEquals(BigInteger.valueOf(80), score.call("balanceOf", owner.getAddress(), id1));
+        assertEquals(BigInteger.valueOf(20), score.call("balanceOf", alice.getAddress(), id1));
+
+        // the event carries the ids and values as given
+        ArgumentCaptor<byte[]> idsCaptor = ArgumentCaptor.forClass(byte[].class);
+        ArgumentCaptor<byte[]> valuesCaptor = ArgumentCaptor.forClass(byte[].class);
+        verify(spy).TransferBatch(any(), any(), any(), idsCaptor.capture(), valuesCaptor.capture());
+        assertArrayEquals(HSP1155Basic.rlpEncode(ids), idsCaptor.getValue());
+        assertArrayEquals(HSP1155Basic.rlpEncode(values), valuesCaptor.getValue());
+
+        // each value fits the balance, but the sum for id0 does not
+        BigInteger[] ids2 = {id0, id0};
+        BigInteger[] values2 = {BigInteger.valueOf(40), BigInteger.valueOf(30)};
+        assertThrows(AssertionError.class, () ->
+                score.invoke(owner, "safeBatchTransferFrom", owner.getAddress(), bob.getAddress(), ids2, values2, "test".getBytes()));
+        assertEquals(BigInteger.valueOf(60), score.call("balanceOf", owner.getAddress(), id0));
+        assertEquals(BigInteger.ZERO, score.call("balanceOf", bob.getAddress(), id0));
+
+        // transfer to self
+        score.invoke(alice, "safeBatchTransferFrom", alice.getAddress(), alice.getAddress(), ids2, new BigInteger[]{BigInteger.TEN, BigInteger.TEN}, "test".getBytes());
+        assertEquals(BigInteger.valueOf(40), score.call("balanceOf", alice.getAddress(), id0));
+    }
+
     @Test
     void testTransferFromBatchZeroAddress() {
         BigInteger supply = BigInteger.valueOf(100);
@@ -20,6 +20,7 @@ import com.iconloop.score.test.Account;
 import com.iconloop.score.test.Score;
 import com.iconloop.score.test.ServiceManager;
 import com.iconloop.score.test.TestBase;
+import io.havah.contract.test.StorageProfiler;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import score.Address;
@@ -42,6 +43,7 @@ class HSP20BasicTest extends TestBase {
     private static final ServiceManager sm = getServiceManager();
     private static final Account owner = sm.createAccount();
     private static Score tokenScore;
+    private static StorageProfiler profiler;
 
     public static class HSP20BasicToken extends HSP20Basic {
         public HSP20BasicToken(String _name, String _symbol, int _decimals, BigInteger _totalSupply) {
@@ -55,6 +57,7 @@ class HSP20BasicTest extends TestBase {
         tokenScore = sm.deploy(owner, HSP20BasicToken.class,
                 name, symbol, decimals, totalSupply);
         owner.addBalance(symbol, totalSupply);
+        profiler = new StorageProfiler(tokenScore);
     }
 
     @Test
@@ -103,6 +106,30 @@ class HSP20BasicTest extends TestBase {
                 tokenScore.call("balanceOf", to));
     }
 
+    @Test
+    void transferBatch() {
+        Account alice = sm.createAccount();
+        Account bob = sm.createAccount();
+        BigInteger value = TEN.pow(decimals);
+        _transfer(owner, alice.getAddress(), value.multiply(TEN));
+
+        // bob appears twice, and alice sends to herself as well
+        Address[] to = {bob.getAddress(), alice.getAddress(), bob.getAddress()};
+        BigInteger[] values = {value, value.multiply(BigInteger.TWO), value.multiply(BigInteger.valueOf(3))};
+        tokenScore.invoke(alice, "transferBatch", to, values);
+        assertEquals(value.multiply(BigInteger.valueOf(6)), tokenScore.call("balanceOf", alice.getAddress()));
+        assertEquals(value.multiply(BigInteger.valueOf(4)), tokenScore.call("balanceOf", bob.getAddress()));
+
+        // the total exceeds the balance
+        BigInteger[] tooMuch = {value.multiply(BigInteger.valueOf(5)), ONE, value};
+        assertThrows(AssertionError.class, () ->
+                tokenScore.invoke(alice, "transferBatch", to, tooMuch));
+        // length mismatch
+        assertThrows(AssertionError.class, () ->
+                tokenScore.invoke(alice, "transferBatch", to, new BigInteger[]{value}));
+        assertEquals(value.multiply(BigInteger.valueOf(6)), tokenScore.call("balanceOf", alice.getAddress()));
+    }
+
     @Test
     void approve() {
         Account alice = sm.createAccount();
@@ -143,4 +170,77 @@ class HSP20BasicTest extends TestBase {
         assertEquals(allowance,
                 tokenScore.call("balanceOf", bob.getAddress()));
     }
+
+    @Test
+    void unlimitedAllowance() {
+        Account alice = sm.createAccount();
+        Account bob = sm.createAccount();
+        BigInteger value = TEN.pow(decimals);
+        _transfer(owner, alice.getAddress(), value);
+        _approve(alice, owner.getAddress(), HSP20Basic.UNLIMITED_ALLOWANCE);
+
+        // the unlimited allowance is not decreased, so only the balances are written
+        tokenScore.invoke(owner, "transferFrom", alice.getAddress(), bob.getAddress(), value.divide(TEN));
+        var stats = profiler.invoke(owner, "transferFrom", alice.getAddress(), bob.getAddress(), value.divide(TEN));
+        assertEquals(2, stats.getSets());
+        assertEquals(HSP20Basic.UNLIMITED_ALLOWANCE, tokenScore.call("allowance", alice.getAddress(), owner.getAddress()));
+        assertEquals(value.divide(BigInteger.valueOf(5)), tokenScore.call("balanceOf", bob.getAddress()));
+    }
+
+    @Test
+    void increaseAndDecreaseAllowance() {
+        Account alice = sm.createAccount();
+        Account bob = sm.createAccount();
+        BigInteger value = TEN.pow(decimals);
+
+        tokenScore.invoke(alice, "increaseAllowance", bob.getAddress(), value);
+        tokenScore.invoke(alice, "increaseAllowance", bob.getAddress(), value);
+        assertEquals(value.add(value), tokenScore.call("allowance", alice.getAddress(), bob.getAddress()));
+        tokenScore.invoke(alice, "decreaseAllowance", bob.getAddress(), value);
+        assertEquals(value, tokenScore.call("allowance", alice.getAddress(), bob.getAddress()));
+
+        assertThrows(AssertionError.class, () ->
+                tokenScore.invoke(alice, "decreaseAllowance", bob.getAddress(), value.add(ONE)));
+        assertThrows(AssertionError.class, () ->
+                tokenScore.invoke(alice, "increaseAllowance", bob.getAddress(), value.negate()));
+        tokenScore.invoke(alice, "decreaseAllowance", bob.getAddress(), value);
+        assertEquals(BigInteger.ZERO, tokenScore.call("allowance", alice.getAddress(), bob.getAddress()));
+    }
+
+    @Test
+    void settle() {
+        Account clearing = sm.createAccount();
+        Account alice = sm.createAccount();
+        Account bob = sm.createAccount();
+        Account carol = sm.createAccount();
+        BigInteger value = TEN.pow(decimals);
+        _transfer(owner, alice.getAddress(), value);
+        Address[] from = {alice.getAddress(), bob.getAddress(), carol.getAddress(), alice.getAddress()};
+        Address[] to = {bob.getAddress(), carol.getAddress(), alice.getAddress(), carol.getAddress()};
+        // bob and carol pay with what they receive in the same settlement
+        BigInteger[] values = {value, value, value, value.divide(TEN)};
+
+        // each sender must approve the caller
+        _approve(alice, clearing.getAddress(), HSP20Basic.UNLIMITED_ALLOWANCE);
+        _approve(bob, clearing.getAddress(), HSP20Basic.UNLIMITED_ALLOWANCE);
+        assertThrows(AssertionError.class, () -> tokenScore.invoke(clearing, "settle", from, to, values));
+        _approve(carol, clearing.getAddress(), value);
+
+        // a net outflow over the balance fails
+        assertThrows(AssertionError.class, () -> tokenScore.invoke(clearing, "settle", from, to,
+                new BigInteger[]{value, value, value, value.add(ONE)}));
+
+        var stats = profiler.invoke(clearing, "settle", from, to, values);
+        // the balances of alice and carol, and the finite allowance of carol; bob has no net change
+        assertEquals(3, stats.getSets());
+        assertEquals(value.subtract(value.divide(TEN)), tokenScore.call("balanceOf", alice.getAddress()));
+        assertEquals(BigInteger.ZERO, tokenScore.call("balanceOf", bob.getAddress()));
+        assertEquals(value.divide(TEN), tokenScore.call("balanceOf", carol.getAddress()));
+        assertEquals(BigInteger.ZERO, tokenScore.call("allowance", carol.getAddress(), clearing.getAddress()));
+
+        // no allowance is needed for the legs of the caller
+        tokenScore.invoke(carol, "settle", new Address[]{carol.getAddress()}, new Address[]{bob.getAddress()},
+                new BigInteger[]{value.divide(TEN)});
+        assertEquals(value.divide(TEN), tokenScore.call("balanceOf", bob.getAddress()));
+    }
 }
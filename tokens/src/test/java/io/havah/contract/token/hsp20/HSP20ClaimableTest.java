@@ -0,0 +1,149 @@
+/*
+ * Copyright 2022 HAVAH Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.havah.contract.token.hsp20;
+
+import com.iconloop.score.test.Account;
+import com.iconloop.score.test.Score;
+import com.iconloop.score.test.ServiceManager;
+import com.iconloop.score.test.TestBase;
+import io.havah.contract.test.MerkleTree;
+import io.havah.contract.test.StorageProfiler;
+import io.havah.contract.test.StorageStats;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HSP20ClaimableTest extends TestBase {
+    private static final ServiceManager sm = getServiceManager();
+    private static final Account owner = sm.createAccount();
+    private Score tokenScore;
+
+    public static class HSP20ClaimableToken extends HSP20Claimable {
+        public HSP20ClaimableToken(String _name, String _symbol, int _decimals) {
+            super(_name, _symbol, _decimals);
+        }
+    }
+
+    @BeforeEach
+    void setup() throws Exception {
+        tokenScore = sm.deploy(owner, HSP20ClaimableToken.class, "MyHSP20Token", "MIT", 18);
+    }
+
+    private static BigInteger amount(int index) {
+        return BigInteger.valueOf(100L * (index + 1));
+    }
+
+    /**
+     * Creates `count` accounts and the tree of their claims, where the claim of account i has index `offset + i`.
+     */
+    private static MerkleTree distribution(Account[] accounts, int offset) {
+        List<byte[]> leaves = new ArrayList<>();
+        for (int i = 0; i < accounts.length; i++) {
+            if (accounts[i] == null) {
+                accounts[i] = sm.createAccount();
+            }
+            leaves.add(HSP20Claimable.claimLeaf(BigInteger.valueOf(offset + i), accounts[i].getAddress(), amount(i)));
+        }
+        return new MerkleTree(leaves);
+    }
+
+    private void claim(Account account, int index, BigInteger amount, byte[][] proof) {
+        tokenScore.invoke(account, "claim", BigInteger.valueOf(index), amount, proof);
+    }
+
+    @Test
+    void claim() {
+        Account[] accounts = new Account[5];
+        MerkleTree tree = distribution(accounts, 0);
+        var eve = sm.createAccount();
+        assertThrows(AssertionError.class, () -> tokenScore.invoke(eve, "setMerkleRoot", tree.getRoot()));
+        assertThrows(AssertionError.class, () -> claim(accounts[0], 0, amount(0), tree.getProof(0)));
+        tokenScore.invoke(owner, "setMerkleRoot", tree.getRoot());
+        assertArrayEquals(tree.getRoot(), (byte[]) tokenScore.call("merkleRoot"));
+
+        for (int i = 0; i < accounts.length; i++) {
+            assertFalse((Boolean) tokenScore.call("isClaimed", BigInteger.valueOf(i)));
+            claim(accounts[i], i, amount(i), tree.getProof(i));
+            assertTrue((Boolean) tokenScore.call("isClaimed", BigInteger.valueOf(i)));
+            assertEquals(amount(i), tokenScore.call("balanceOf", accounts[i].getAddress()));
+        }
+        assertEquals(BigInteger.valueOf(1500), tokenScore.call("totalSupply"));
+
+        // each index can be claimed only once
+        assertThrows(AssertionError.class, () -> claim(accounts[1], 1, amount(1), tree.getProof(1)));
+    }
+
+    @Test
+    void invalidClaim() {
+        Account[] accounts = new Account[4];
+        MerkleTree tree = distribution(accounts, 0);
+        tokenScore.invoke(owner, "setMerkleRoot", tree.getRoot());
+        var eve = sm.createAccount();
+
+        assertThrows(AssertionError.class, () -> claim(accounts[1], 1, amount(2), tree.getProof(1)));
+        assertThrows(AssertionError.class, () -> claim(accounts[1], 2, amount(1), tree.getProof(1)));
+        assertThrows(AssertionError.class, () -> claim(accounts[1], 1, amount(1), tree.getProof(2)));
+        assertThrows(AssertionError.class, () -> claim(eve, 1, amount(1), tree.getProof(1)));
+        assertFalse((Boolean) tokenScore.call("isClaimed", BigInteger.ONE));
+        assertEquals(BigInteger.ZERO, tokenScore.call("totalSupply"));
+    }
+
+    @Test
+    void nextDistribution() {
+        Account[] first = new Account[3];
+        MerkleTree firstTree = distribution(first, 0);
+        tokenScore.invoke(owner, "setMerkleRoot", firstTree.getRoot());
+        claim(first[0], 0, amount(0), firstTree.getProof(0));
+
+        // the next distribution continues the indexes, and the claimed ones stay claimed
+        Account[] second = new Account[]{first[0], null, null};
+        MerkleTree secondTree = distribution(second, 3);
+        tokenScore.invoke(owner, "setMerkleRoot", secondTree.getRoot());
+        assertThrows(AssertionError.class, () -> claim(first[1], 1, amount(1), firstTree.getProof(1)));
+        claim(second[0], 3, amount(0), secondTree.getProof(0));
+        assertEquals(amount(0).add(amount(0)), tokenScore.call("balanceOf", first[0].getAddress()));
+        assertTrue((Boolean) tokenScore.call("isClaimed", BigInteger.ZERO));
+        assertTrue((Boolean) tokenScore.call("isClaimed", BigInteger.valueOf(3)));
+    }
+
+    @Test
+    void claimCost() throws Exception {
+        StorageStats[] stats = new StorageStats[2];
+        int[] sizes = {10, 1000};
+        for (int i = 0; i < sizes.length; i++) {
+            Score score = sm.deploy(owner, HSP20ClaimableToken.class, "MyHSP20Token", "MIT", 18);
+            Account[] accounts = new Account[sizes[i]];
+            MerkleTree tree = distribution(accounts, 0);
+            score.invoke(owner, "setMerkleRoot", tree.getRoot());
+            var profiler = new StorageProfiler(score);
+            int index = sizes[i] - 1;
+            stats[i] = profiler.invoke(accounts[index], "claim",
+                    BigInteger.valueOf(index), amount(index), tree.getProof(index));
+        }
+        // the storage accesses of a claim do not depend on the number of leaves
+        assertEquals(stats[0].getGets(), stats[1].getGets());
+        assertEquals(stats[0].getSets(), stats[1].getSets());
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2022 HAVAH Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.havah.contract.token.hsp20;
+
+import com.iconloop.score.test.Account;
+import com.iconloop.score.test.Score;
+import com.iconloop.score.test.ServiceManager;
+import com.iconloop.score.test.TestBase;
+import io.havah.contract.util.Pages;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import score.Address;
+import score.Context;
+import score.annotation.External;
+
+import java.math.BigInteger;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class HSP20EnumerableTest extends TestBase {
+    private static final ServiceManager sm = getServiceManager();
+    private static final Account owner = sm.createAccount();
+    private Score tokenScore;
+
+    public static class HSP20EnumerableToken extends HSP20Enumerable {
+        public HSP20EnumerableToken(String _name, String _symbol, int _decimals, BigInteger _totalSupply) {
+            super(_name, _symbol, _decimals);
+            _mint(Context.getCaller(), _totalSupply);
+        }
+
+        @External
+        public void burn(BigInteger _value) {
+            _burn(Context.getCaller(), _value);
+        }
+    }
+
+    @BeforeEach
+    void setup() throws Exception {
+        tokenScore = sm.deploy(owner, HSP20EnumerableToken.class, "MyHSP20Token", "MIT", 18, BigInteger.valueOf(1000));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<Address, BigInteger> allHolders(int pageSize) {
+        Map<Address, BigInteger> result = new HashMap<>();
+        for (int offset = 0; ; offset += pageSize) {
+            var page = (List<Map<String, Object>>) tokenScore.call("holders", offset, pageSize);
+            for (var entry : page) {
+                result.put((Address) entry.get("address"), (BigInteger) entry.get("balance"));
+            }
+            if (page.size() < pageSize) {
+                return result;
+            }
+        }
+    }
+
+    @Test
+    void holders() {
+        Account[] accounts = new Account[7];
+        Address[] to = new Address[accounts.length];
+        BigInteger[] values = new BigInteger[accounts.length];
+        for (int i = 0; i < accounts.length; i++) {
+            accounts[i] = sm.createAccount();
+            to[i] = accounts[i].getAddress();
+            values[i] = BigInteger.valueOf(i + 1);
+        }
+        assertEquals(1, tokenScore.call("holderCount"));
+        tokenScore.invoke(owner, "transferBatch", to, values);
+        assertEquals(8, tokenScore.call("holderCount"));
+
+        // a zero transfer doesn't add the recipient
+        tokenScore.invoke(owner, "transfer", sm.createAccount().getAddress(), BigInteger.ZERO);
+        // holders returning to zero are removed
+        tokenScore.invoke(accounts[2], "transfer", accounts[3].getAddress(), BigInteger.valueOf(3));
+        tokenScore.invoke(accounts[0], "burn", BigInteger.ONE);
+        assertEquals(6, tokenScore.call("holderCount"));
+
+        Map<Address, BigInteger> expected = new HashMap<>();
+        expected.put(owner.getAddress(), BigInteger.valueOf(1000 - 28));
+        expected.put(accounts[1].getAddress(), BigInteger.valueOf(2));
+        expected.put(accounts[3].getAddress(), BigInteger.valueOf(7));
+        for (int i = 4; i < accounts.length; i++) {
+            expected.put(accounts[i].getAddress(), BigInteger.valueOf(i + 1));
+        }
+        assertEquals(expected, allHolders(4));
+        assertEquals(expected, allHolders(100));
+    }
+
+    @Test
+    void invalidPage() {
+        assertEquals(List.of(), tokenScore.call("holders", 1, 10));
+        assertEquals(List.of(), tokenScore.call("holders", Integer.MAX_VALUE, 100));
+        assertThrows(AssertionError.class, () -> tokenScore.call("holders", -1, 10));
+        assertThrows(AssertionError.class, () -> tokenScore.call("holders", 0, 0));
+        assertThrows(AssertionError.class, () -> tokenScore.call("holders", 0, Pages.MAX_PAGE_SIZE + 1));
+    }
+}
@@ -31,6 +31,7 @@ import static java.math.BigInteger.TEN;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 public class HSP20MintableTest extends TestBase {
@@ -109,6 +110,36 @@ public class HSP20MintableTest extends TestBase {
         assertThrows(AssertionError.class, () -> tokenScore.invoke(eve, "mintTo", alice.getAddress(), amount));
     }
 
+    @Test
+    void mintBatch() {
+        final Address zeroAddress = new Address(new byte[Address.LENGTH]);
+        var bob = sm.createAccount();
+        var carol = sm.createAccount();
+        BigInteger amount = TEN.pow(decimals);
+        Address[] to = {bob.getAddress(), carol.getAddress(), bob.getAddress()};
+        BigInteger[] values = {amount, amount.multiply(TEN), amount};
+
+        // only the minter can mint, and the pairs must match
+        assertThrows(AssertionError.class, () -> tokenScore.invoke(eve, "mintBatch", to, values));
+        assertThrows(AssertionError.class, () ->
+                tokenScore.invoke(owner, "mintBatch", to, new BigInteger[]{amount, amount}));
+        // a single invalid pair reverts the whole batch
+        assertThrows(AssertionError.class, () -> tokenScore.invoke(owner, "mintBatch",
+                new Address[]{bob.getAddress(), zeroAddress}, new BigInteger[]{amount, amount}));
+        assertThrows(AssertionError.class, () -> tokenScore.invoke(owner, "mintBatch",
+                new Address[]{bob.getAddress(), carol.getAddress()}, new BigInteger[]{amount, amount.negate()}));
+        assertEquals(totalSupply, tokenScore.call("totalSupply"));
+        assertEquals(BigInteger.ZERO, tokenScore.call("balanceOf", bob.getAddress()));
+
+        tokenScore.invoke(owner, "mintBatch", to, values);
+        totalSupply = totalSupply.add(amount.multiply(BigInteger.valueOf(12)));
+        assertEquals(amount.add(amount), tokenScore.call("balanceOf", bob.getAddress()));
+        assertEquals(amount.multiply(TEN), tokenScore.call("balanceOf", carol.getAddress()));
+        assertEquals(totalSupply, tokenScore.call("totalSupply"));
+        verify(tokenSpy, times(2)).Transfer(zeroAddress, bob.getAddress(), amount);
+        verify(tokenSpy).Transfer(zeroAddress, carol.getAddress(), amount.multiply(TEN));
+    }
+
     @Test
     void setMinter() {
         // Change minter role to Alice
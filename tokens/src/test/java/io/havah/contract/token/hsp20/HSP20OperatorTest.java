@@ -0,0 +1,90 @@
+/*
+ * Copyright 2022 HAVAH Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.havah.contract.token.hsp20;
+
+import com.iconloop.score.test.Account;
+import com.iconloop.score.test.Score;
+import com.iconloop.score.test.ServiceManager;
+import com.iconloop.score.test.TestBase;
+import io.havah.contract.test.StorageProfiler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import score.Context;
+
+import java.math.BigInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HSP20OperatorTest extends TestBase {
+    private static final ServiceManager sm = getServiceManager();
+    private static final Account owner = sm.createAccount();
+    private Score tokenScore;
+
+    public static class HSP20OperatorToken extends HSP20Operator {
+        public HSP20OperatorToken(String _name, String _symbol, int _decimals, BigInteger _totalSupply) {
+            super(_name, _symbol, _decimals);
+            _mint(Context.getCaller(), _totalSupply);
+        }
+    }
+
+    @BeforeEach
+    void setup() throws Exception {
+        tokenScore = sm.deploy(owner, HSP20OperatorToken.class, "MyHSP20Token", "MIT", 18, BigInteger.valueOf(1000));
+    }
+
+    @Test
+    void operatorSend() {
+        var custodian = sm.createAccount();
+        var alice = sm.createAccount();
+        BigInteger value = BigInteger.valueOf(100);
+        assertFalse((Boolean) tokenScore.call("isOperatorFor", custodian.getAddress(), owner.getAddress()));
+        assertTrue((Boolean) tokenScore.call("isOperatorFor", owner.getAddress(), owner.getAddress()));
+        assertThrows(AssertionError.class, () ->
+                tokenScore.invoke(custodian, "operatorSend", owner.getAddress(), alice.getAddress(), value));
+
+        tokenScore.invoke(owner, "authorizeOperator", custodian.getAddress());
+        assertTrue((Boolean) tokenScore.call("isOperatorFor", custodian.getAddress(), owner.getAddress()));
+        // the operator moves tokens without any allowance, and writes only the balances
+        var profiler = new StorageProfiler(tokenScore);
+        var stats = profiler.invoke(custodian, "operatorSend", owner.getAddress(), alice.getAddress(), value);
+        assertEquals(2, stats.getSets());
+        profiler.invoke(custodian, "operatorSend", owner.getAddress(), alice.getAddress(), value);
+        assertEquals(BigInteger.valueOf(800), tokenScore.call("balanceOf", owner.getAddress()));
+        assertEquals(BigInteger.valueOf(200), tokenScore.call("balanceOf", alice.getAddress()));
+        assertEquals(BigInteger.ZERO, tokenScore.call("allowance", owner.getAddress(), custodian.getAddress()));
+        // an operator of one holder can't move the tokens of another
+        assertThrows(AssertionError.class, () ->
+                tokenScore.invoke(custodian, "operatorSend", alice.getAddress(), owner.getAddress(), value));
+
+        tokenScore.invoke(owner, "revokeOperator", custodian.getAddress());
+        assertFalse((Boolean) tokenScore.call("isOperatorFor", custodian.getAddress(), owner.getAddress()));
+        assertThrows(AssertionError.class, () ->
+                tokenScore.invoke(custodian, "operatorSend", owner.getAddress(), alice.getAddress(), value));
+    }
+
+    @Test
+    void selfOperator() {
+        var alice = sm.createAccount();
+        assertThrows(AssertionError.class, () -> tokenScore.invoke(owner, "authorizeOperator", owner.getAddress()));
+        assertThrows(AssertionError.class, () -> tokenScore.invoke(owner, "revokeOperator", owner.getAddress()));
+        // a holder is always an operator of itself
+        tokenScore.invoke(owner, "operatorSend", owner.getAddress(), alice.getAddress(), BigInteger.TEN);
+        assertEquals(BigInteger.TEN, tokenScore.call("balanceOf", alice.getAddress()));
+    }
+}
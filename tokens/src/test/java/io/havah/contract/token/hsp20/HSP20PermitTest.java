@@ -0,0 +1,131 @@
+/*
+ * Copyright 2022 HAVAH Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.havah.contract.token.hsp20;
+
+import com.iconloop.score.test.Account;
+import com.iconloop.score.test.Score;
+import com.iconloop.score.test.ServiceManager;
+import com.iconloop.score.test.TestBase;
+import foundation.icon.icx.KeyWallet;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import score.Address;
+import score.Context;
+import score.annotation.External;
+
+import java.math.BigInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class HSP20PermitTest extends TestBase {
+    private static final BigInteger deadline = BigInteger.valueOf(Long.MAX_VALUE);
+    private static final BigInteger nid = BigInteger.valueOf(0x101);
+    private static final ServiceManager sm = getServiceManager();
+    private static final Account owner = sm.createAccount();
+    private Score tokenScore;
+    private KeyWallet wallet;
+    private Address holder;
+
+    public static class HSP20PermitToken extends HSP20Permit {
+        public HSP20PermitToken(String _name, String _symbol, int _decimals, BigInteger _nid, BigInteger _totalSupply) {
+            super(_name, _symbol, _decimals, _nid);
+            _mint(Context.getCaller(), _totalSupply);
+        }
+    }
+
+    public static class DepositContract {
+        // sets the allowance and spends it in a single transaction
+        @External
+        public void deposit(Address _token, Address _owner, BigInteger _value, BigInteger _deadline, byte[] _signature) {
+            Context.call(_token, "permit", _owner, Context.getAddress(), _value, _deadline, _signature);
+            Context.call(_token, "transferFrom", _owner, Context.getAddress(), _value);
+        }
+    }
+
+    @BeforeEach
+    void setup() throws Exception {
+        tokenScore = sm.deploy(owner, HSP20PermitToken.class, "MyHSP20Token", "MIT", 18, nid, BigInteger.valueOf(1000));
+        wallet = KeyWallet.create();
+        holder = Address.fromString(wallet.getAddress().toString());
+        tokenScore.invoke(owner, "transfer", holder, BigInteger.valueOf(100));
+    }
+
+    private byte[] sign(Address spender, BigInteger value, BigInteger deadline) {
+        byte[] hash = (byte[]) tokenScore.call("permitHash", holder, spender, value, deadline);
+        return wallet.sign(hash);
+    }
+
+    @Test
+    void permit() {
+        var spender = sm.createAccount();
+        var value = BigInteger.valueOf(40);
+        byte[] signature = sign(spender.getAddress(), value, deadline);
+
+        tokenScore.invoke(spender, "permit", holder, spender.getAddress(), value, deadline, signature);
+        assertEquals(value, tokenScore.call("allowance", holder, spender.getAddress()));
+        assertEquals(BigInteger.ONE, tokenScore.call("nonces", holder));
+
+        // a signature cannot be used twice
+        assertThrows(AssertionError.class, () ->
+                tokenScore.invoke(spender, "permit", holder, spender.getAddress(), value, deadline, signature));
+
+        tokenScore.invoke(spender, "transferFrom", holder, spender.getAddress(), value);
+        assertEquals(BigInteger.valueOf(60), tokenScore.call("balanceOf", holder));
+        assertEquals(BigInteger.ZERO, tokenScore.call("allowance", holder, spender.getAddress()));
+    }
+
+    @Test
+    void invalidPermit() throws Exception {
+        var spender = sm.createAccount();
+        var value = BigInteger.valueOf(40);
+
+        // expired
+        byte[] expired = sign(spender.getAddress(), value, BigInteger.ZERO);
+        assertThrows(AssertionError.class, () ->
+                tokenScore.invoke(spender, "permit", holder, spender.getAddress(), value, BigInteger.ZERO, expired));
+
+        // signed by another key
+        byte[] hash = (byte[]) tokenScore.call("permitHash", holder, spender.getAddress(), value, deadline);
+        byte[] forged = KeyWallet.create().sign(hash);
+        assertThrows(AssertionError.class, () ->
+                tokenScore.invoke(spender, "permit", holder, spender.getAddress(), value, deadline, forged));
+
+        // the signed value does not match
+        byte[] signature = sign(spender.getAddress(), value, deadline);
+        assertThrows(AssertionError.class, () ->
+                tokenScore.invoke(spender, "permit", holder, spender.getAddress(), value.add(BigInteger.ONE), deadline, signature));
+        assertEquals(BigInteger.ZERO, tokenScore.call("allowance", holder, spender.getAddress()));
+        assertEquals(BigInteger.ZERO, tokenScore.call("nonces", holder));
+    }
+
+    @Test
+    void networkId() {
+        assertEquals(nid, tokenScore.call("networkId"));
+    }
+
+    @Test
+    void depositWithPermit() throws Exception {
+        Score depositScore = sm.deploy(owner, DepositContract.class);
+        var value = BigInteger.valueOf(25);
+        byte[] signature = sign(depositScore.getAddress(), value, deadline);
+
+        depositScore.invoke(owner, "deposit", tokenScore.getAddress(), holder, value, deadline, signature);
+        assertEquals(value, tokenScore.call("balanceOf", depositScore.getAddress()));
+        assertEquals(BigInteger.valueOf(75), tokenScore.call("balanceOf", holder));
+    }
+}
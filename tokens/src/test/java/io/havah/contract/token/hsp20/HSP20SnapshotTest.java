@@ -0,0 +1,126 @@
+/*
+ * Copyright 2022 HAVAH Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.havah.contract.token.hsp20;
+
+import com.iconloop.score.test.Account;
+import com.iconloop.score.test.Score;
+import com.iconloop.score.test.ServiceManager;
+import com.iconloop.score.test.TestBase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import score.Address;
+import score.Context;
+import score.annotation.External;
+
+import java.math.BigInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class HSP20SnapshotTest extends TestBase {
+    private static final ServiceManager sm = getServiceManager();
+    private static final Account owner = sm.createAccount();
+    private Score tokenScore;
+
+    public static class HSP20SnapshotToken extends HSP20Snapshot {
+        public HSP20SnapshotToken(String _name, String _symbol, int _decimals, BigInteger _totalSupply) {
+            super(_name, _symbol, _decimals);
+            _mint(Context.getCaller(), _totalSupply);
+        }
+
+        @External
+        public void snapshot() {
+            Context.require(Context.getCaller().equals(Context.getOwner()));
+            _snapshot();
+        }
+
+        @External
+        public void mintTo(Address _to, BigInteger _value) {
+            Context.require(Context.getCaller().equals(Context.getOwner()));
+            _mint(_to, _value);
+        }
+
+        @External
+        public void burn(BigInteger _value) {
+            _burn(Context.getCaller(), _value);
+        }
+    }
+
+    @BeforeEach
+    void setup() throws Exception {
+        tokenScore = sm.deploy(owner, HSP20SnapshotToken.class, "MyHSP20Token", "MIT", 18, BigInteger.valueOf(1000));
+    }
+
+    private static BigInteger value(int value) {
+        return BigInteger.valueOf(value);
+    }
+
+    private void assertBalanceAt(Account account, int snapshotId, int expected) {
+        assertEquals(value(expected), tokenScore.call("balanceOfAt", account.getAddress(), value(snapshotId)));
+    }
+
+    @Test
+    void balanceOfAt() {
+        var alice = sm.createAccount();
+        var bob = sm.createAccount();
+        assertThrows(AssertionError.class, () ->
+                tokenScore.call("balanceOfAt", owner.getAddress(), BigInteger.ONE));
+
+        tokenScore.invoke(owner, "transfer", alice.getAddress(), value(100));
+        tokenScore.invoke(owner, "snapshot");
+        assertEquals(BigInteger.ONE, tokenScore.call("getCurrentSnapshotId"));
+
+        // several transfers after a snapshot record the value before the first one
+        tokenScore.invoke(alice, "transfer", bob.getAddress(), value(10));
+        tokenScore.invoke(alice, "transfer", bob.getAddress(), value(20));
+        tokenScore.invoke(owner, "snapshot");
+        tokenScore.invoke(owner, "snapshot");
+        tokenScore.invoke(owner, "transferBatch",
+                new Address[]{alice.getAddress(), alice.getAddress()}, new BigInteger[]{value(5), value(5)});
+
+        assertBalanceAt(owner, 1, 900);
+        assertBalanceAt(alice, 1, 100);
+        assertBalanceAt(bob, 1, 0);
+        assertBalanceAt(alice, 2, 70);
+        assertBalanceAt(bob, 2, 30);
+        assertBalanceAt(alice, 3, 70);
+        assertBalanceAt(owner, 3, 900);
+        assertEquals(value(80), tokenScore.call("balanceOf", alice.getAddress()));
+
+        assertThrows(AssertionError.class, () ->
+                tokenScore.call("balanceOfAt", owner.getAddress(), value(4)));
+        assertThrows(AssertionError.class, () ->
+                tokenScore.call("balanceOfAt", owner.getAddress(), BigInteger.ZERO));
+    }
+
+    @Test
+    void totalSupplyAt() {
+        var alice = sm.createAccount();
+        tokenScore.invoke(owner, "snapshot");
+        tokenScore.invoke(owner, "mintTo", alice.getAddress(), value(500));
+        tokenScore.invoke(owner, "snapshot");
+        tokenScore.invoke(alice, "burn", value(200));
+        tokenScore.invoke(owner, "snapshot");
+
+        assertEquals(value(1000), tokenScore.call("totalSupplyAt", value(1)));
+        assertEquals(value(1500), tokenScore.call("totalSupplyAt", value(2)));
+        assertEquals(value(1300), tokenScore.call("totalSupplyAt", value(3)));
+        assertBalanceAt(alice, 1, 0);
+        assertBalanceAt(alice, 2, 500);
+        assertBalanceAt(alice, 3, 300);
+    }
+}
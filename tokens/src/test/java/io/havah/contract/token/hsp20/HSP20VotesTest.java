@@ -0,0 +1,213 @@
+/*
+ * Copyright 2022 HAVAH Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.havah.contract.token.hsp20;
+
+import com.iconloop.score.test.Account;
+import com.iconloop.score.test.Score;
+import com.iconloop.score.test.ServiceManager;
+import com.iconloop.score.test.TestBase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import score.Address;
+import score.Context;
+import score.annotation.External;
+
+import java.math.BigInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class HSP20VotesTest extends TestBase {
+    private static final ServiceManager sm = getServiceManager();
+    private static final Account owner = sm.createAccount();
+    private Score tokenScore;
+
+    public static class HSP20VotesToken extends HSP20Votes {
+        public HSP20VotesToken(String _name, String _symbol, int _decimals, BigInteger _totalSupply) {
+            super(_name, _symbol, _decimals);
+            _mint(Context.getCaller(), _totalSupply);
+        }
+
+        @External
+        public void mintTo(Address _to, BigInteger _value) {
+            Context.require(Context.getCaller().equals(Context.getOwner()));
+            _mint(_to, _value);
+        }
+
+        @External
+        public void mintBatch(Address[] _to, BigInteger[] _values) {
+            Context.require(Context.getCaller().equals(Context.getOwner()));
+            _mintBatch(_to, _values);
+        }
+
+        @External
+        public void burn(BigInteger _value) {
+            _burn(Context.getCaller(), _value);
+        }
+    }
+
+    @BeforeEach
+    void setup() throws Exception {
+        tokenScore = sm.deploy(owner, HSP20VotesToken.class, "MyHSP20Token", "MIT", 18, BigInteger.valueOf(1000));
+    }
+
+    private static BigInteger value(int value) {
+        return BigInteger.valueOf(value);
+    }
+
+    private BigInteger clock() {
+        return (BigInteger) tokenScore.call("clock");
+    }
+
+    private void assertVotes(Account account, int expected) {
+        assertEquals(value(expected), tokenScore.call("getVotes", account.getAddress()));
+    }
+
+    private void assertPastVotes(Account account, BigInteger height, int expected) {
+        assertEquals(value(expected), tokenScore.call("getPastVotes", account.getAddress(), height));
+    }
+
+    @Test
+    void delegate() {
+        var alice = sm.createAccount();
+        var bob = sm.createAccount();
+        tokenScore.invoke(owner, "transfer", alice.getAddress(), value(100));
+        // no voting power before delegating
+        assertVotes(owner, 0);
+        assertVotes(alice, 0);
+
+        tokenScore.invoke(owner, "delegate", owner.getAddress());
+        tokenScore.invoke(alice, "delegate", bob.getAddress());
+        assertEquals(bob.getAddress(), tokenScore.call("delegates", alice.getAddress()));
+        assertVotes(owner, 900);
+        assertVotes(alice, 0);
+        assertVotes(bob, 100);
+
+        // transfers move the voting power between the delegates
+        tokenScore.invoke(owner, "transfer", alice.getAddress(), value(50));
+        assertVotes(owner, 850);
+        assertVotes(bob, 150);
+        tokenScore.invoke(alice, "transfer", bob.getAddress(), value(30));
+        assertVotes(bob, 120);
+
+        // re-delegating moves the whole balance
+        tokenScore.invoke(alice, "delegate", owner.getAddress());
+        assertVotes(owner, 970);
+        assertVotes(bob, 0);
+        tokenScore.invoke(alice, "delegate", new Address(new byte[Address.LENGTH]));
+        assertVotes(owner, 850);
+        assertEquals(new Address(new byte[Address.LENGTH]), tokenScore.call("delegates", alice.getAddress()));
+    }
+
+    @Test
+    void getPastVotes() {
+        var alice = sm.createAccount();
+        // the height of the block which the next transaction goes into
+        BigInteger delegated = clock();
+        tokenScore.invoke(owner, "delegate", owner.getAddress());
+        BigInteger transferred = clock();
+        tokenScore.invoke(owner, "transfer", alice.getAddress(), value(100));
+        BigInteger minted = clock();
+        tokenScore.invoke(owner, "mintTo", owner.getAddress(), value(500));
+        tokenScore.invoke(owner, "burn", value(300));
+
+        assertPastVotes(owner, delegated.subtract(BigInteger.ONE), 0);
+        assertPastVotes(owner, delegated, 1000);
+        assertPastVotes(owner, transferred, 900);
+        assertPastVotes(owner, minted, 1400);
+        assertPastVotes(owner, clock().subtract(BigInteger.ONE), 1100);
+        assertEquals(value(1000), tokenScore.call("getPastTotalSupply", delegated));
+        assertEquals(value(1500), tokenScore.call("getPastTotalSupply", minted));
+        assertEquals(value(1200), tokenScore.call("getPastTotalSupply", clock().subtract(BigInteger.ONE)));
+
+        // the current block is not finished yet
+        assertThrows(AssertionError.class, () ->
+                tokenScore.call("getPastVotes", owner.getAddress(), clock()));
+        assertThrows(AssertionError.class, () ->
+                tokenScore.call("getPastTotalSupply", clock()));
+    }
+
+    @Test
+    void mintBatch() {
+        var alice = sm.createAccount();
+        tokenScore.invoke(alice, "delegate", alice.getAddress());
+        BigInteger minted = clock();
+        tokenScore.invoke(owner, "mintBatch",
+                new Address[]{alice.getAddress(), owner.getAddress(), alice.getAddress()},
+                new BigInteger[]{value(10), value(20), value(30)});
+        tokenScore.invoke(owner, "delegate", owner.getAddress());
+
+        assertPastVotes(alice, minted, 40);
+        assertPastVotes(owner, minted, 0);
+        assertEquals(value(1060), tokenScore.call("getPastTotalSupply", minted));
+        assertEquals(value(1060), tokenScore.call("totalSupply"));
+        assertVotes(owner, 1020);
+    }
+
+    @Test
+    void sameBlockCheckpoints() {
+        var alice = sm.createAccount();
+        var bob = sm.createAccount();
+        tokenScore.invoke(owner, "delegate", owner.getAddress());
+        tokenScore.invoke(alice, "delegate", alice.getAddress());
+        tokenScore.invoke(bob, "delegate", alice.getAddress());
+        assertEquals(1, tokenScore.call("numCheckpoints", owner.getAddress()));
+
+        // several transfers within a transaction leave a single checkpoint per delegate
+        tokenScore.invoke(owner, "transferBatch",
+                new Address[]{alice.getAddress(), bob.getAddress(), alice.getAddress()},
+                new BigInteger[]{value(10), value(20), value(30)});
+        assertEquals(2, tokenScore.call("numCheckpoints", owner.getAddress()));
+        assertEquals(1, tokenScore.call("numCheckpoints", alice.getAddress()));
+        assertVotes(owner, 940);
+        assertVotes(alice, 60);
+    }
+
+    @Test
+    void settle() {
+        var clearing = sm.createAccount();
+        var alice = sm.createAccount();
+        var bob = sm.createAccount();
+        var carol = sm.createAccount();
+        tokenScore.invoke(owner, "transfer", alice.getAddress(), value(100));
+        for (Account account : new Account[]{alice, bob, carol}) {
+            tokenScore.invoke(account, "delegate", account.getAddress());
+            tokenScore.invoke(account, "approve", clearing.getAddress(), HSP20Basic.UNLIMITED_ALLOWANCE);
+        }
+
+        // a cycle has no net flow, even though bob and carol pay before they receive
+        tokenScore.invoke(clearing, "settle",
+                new Address[]{bob.getAddress(), carol.getAddress(), alice.getAddress()},
+                new Address[]{carol.getAddress(), alice.getAddress(), bob.getAddress()},
+                new BigInteger[]{value(100), value(100), value(100)});
+        assertVotes(alice, 100);
+        assertVotes(bob, 0);
+        assertVotes(carol, 0);
+        assertEquals(0, tokenScore.call("numCheckpoints", bob.getAddress()));
+        assertEquals(0, tokenScore.call("numCheckpoints", carol.getAddress()));
+
+        // only the net flows move the voting power
+        tokenScore.invoke(clearing, "settle",
+                new Address[]{bob.getAddress(), alice.getAddress()},
+                new Address[]{carol.getAddress(), bob.getAddress()},
+                new BigInteger[]{value(60), value(100)});
+        assertVotes(alice, 0);
+        assertVotes(bob, 40);
+        assertVotes(carol, 60);
+        assertEquals(1, tokenScore.call("numCheckpoints", bob.getAddress()));
+    }
+}
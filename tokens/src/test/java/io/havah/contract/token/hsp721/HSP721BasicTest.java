@@ -20,16 +20,28 @@ import com.iconloop.score.test.Account;
 import com.iconloop.score.test.Score;
 import com.iconloop.score.test.ServiceManager;
 import com.iconloop.score.test.TestBase;
+import io.havah.contract.test.StorageProfiler;
+import io.havah.contract.util.Pages;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import score.Address;
 import score.Context;
+import score.VarDB;
 import score.annotation.External;
 
 import java.math.BigInteger;
 import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
 
 public class HSP721BasicTest extends TestBase {
     private static final Address ZERO_ADDRESS = new Address(new byte[Address.LENGTH]);
@@ -62,6 +74,76 @@ public class HSP721BasicTest extends TestBase {
         }
     }
 
+    public static class HSP721IndexedToken extends HSP721BasicToken {
+        public HSP721IndexedToken(String _name, String _symbol) {
+            super(_name, _symbol);
+        }
+
+        @Override
+        protected boolean _useOwnerTokenIndex() {
+            return true;
+        }
+    }
+
+    public static class HSP721PackedToken extends HSP721BasicToken {
+        public HSP721PackedToken(String _name, String _symbol) {
+            super(_name, _symbol);
+        }
+
+        @Override
+        protected boolean _usePackedTokenRecord() {
+            return true;
+        }
+    }
+
+    public static class HSP721BatchToken extends HSP721MintBurn {
+        public HSP721BatchToken(String _name, String _symbol) {
+            super(_name, _symbol);
+        }
+
+        @Override
+        protected boolean _useOwnerTokenIndex() {
+            return true;
+        }
+
+        @Override
+        protected boolean _useConsecutiveTransferEvent() {
+            return true;
+        }
+    }
+
+    public static class HSP721HexURIToken extends HSP721MintBurn {
+        public HSP721HexURIToken(String _name, String _symbol) {
+            super(_name, _symbol);
+        }
+
+        @Override
+        protected int _tokenURIRadix() {
+            return 16;
+        }
+    }
+
+    public static class HSP721SampleReceiver {
+        private final VarDB<Integer> received = Context.newVarDB("received", Integer.class);
+        private final VarDB<Boolean> accept = Context.newVarDB("accept", Boolean.class);
+
+        @External
+        public void setAccept(boolean _accept) {
+            accept.set(_accept);
+        }
+
+        @External(readonly = true)
+        public int received() {
+            return received.getOrDefault(0);
+        }
+
+        @External
+        public boolean onHSP721Received(Address _operator, Address _from, BigInteger _tokenId, byte[] _data) {
+            received.set(received() + 1);
+            return accept.getOrDefault(true);
+        }
+    }
+
     @BeforeEach
     public void setup() throws Exception {
         tokenScore = sm.deploy(owner, HSP721BasicToken.class, name, symbol);
@@ -215,4 +297,345 @@ public class HSP721BasicTest extends TestBase {
         assertThrows(AssertionError.class, () ->
                 tokenScore.invoke(bob, "safeTransferFrom", owner.getAddress(), alice.getAddress(), tokenId, "safeTransferFrom".getBytes()));
     }
-}
\ No newline at end of file
+
+    @Test
+    void ownerTokenIndex() throws Exception {
+        tokenScore = sm.deploy(owner, HSP721IndexedToken.class, name, symbol);
+        var alice = sm.createAccount();
+        BigInteger[] tokenIds = new BigInteger[5];
+        for (int i = 0; i < tokenIds.length; i++) {
+            tokenIds[i] = mintToken();
+        }
+        assertEquals(5, tokenScore.call("balanceOf", owner.getAddress()));
+        for (int i = 0; i < tokenIds.length; i++) {
+            assertEquals(tokenIds[i], tokenScore.call("tokenOfOwnerByIndex", owner.getAddress(), i));
+        }
+
+        // removing from the middle moves the last token into the freed index
+        tokenScore.invoke(owner, "transferFrom", owner.getAddress(), alice.getAddress(), tokenIds[1]);
+        assertEquals(4, tokenScore.call("balanceOf", owner.getAddress()));
+        assertEquals(tokenIds[4], tokenScore.call("tokenOfOwnerByIndex", owner.getAddress(), 1));
+        assertEquals(BigInteger.ZERO, tokenScore.call("tokenOfOwnerByIndex", owner.getAddress(), 4));
+        assertEquals(1, tokenScore.call("balanceOf", alice.getAddress()));
+        assertEquals(tokenIds[1], tokenScore.call("tokenOfOwnerByIndex", alice.getAddress(), 0));
+
+        tokenScore.invoke(owner, "burn", tokenIds[4]);
+        tokenScore.invoke(alice, "burn", tokenIds[1]);
+        assertEquals(3, tokenScore.call("balanceOf", owner.getAddress()));
+        assertEquals(0, tokenScore.call("balanceOf", alice.getAddress()));
+        assertEquals(BigInteger.ZERO, tokenScore.call("tokenOfOwnerByIndex", alice.getAddress(), 0));
+        for (int i = 0; i < 3; i++) {
+            var tokenId = tokenScore.call("tokenOfOwnerByIndex", owner.getAddress(), i);
+            assertEquals(owner.getAddress(), tokenScore.call("ownerOf", tokenId));
+        }
+        assertEquals(3, tokenScore.call("totalSupply"));
+    }
+
+    @Test
+    void baseURI() throws Exception {
+        tokenScore = sm.deploy(owner, HSP721MintBurn.class, name, symbol);
+        var tokenId = BigInteger.valueOf(255);
+        assertThrows(AssertionError.class, () ->
+                tokenScore.invoke(owner, "mint", tokenId, ""));
+        assertThrows(AssertionError.class, () ->
+                tokenScore.invoke(sm.createAccount(), "setBaseURI", "https://nft.havah.io/"));
+        tokenScore.invoke(owner, "setBaseURI", "https://nft.havah.io/");
+
+        tokenScore.invoke(owner, "mint", tokenId, "");
+        assertEquals("https://nft.havah.io/255", tokenScore.call("tokenURI", tokenId));
+        assertNull(tokenScore.call("tokenURI", BigInteger.TEN));
+
+        // a token with its own URI
+        tokenScore.invoke(owner, "mint", BigInteger.ONE, "ipfs://override");
+        assertEquals("ipfs://override", tokenScore.call("tokenURI", BigInteger.ONE));
+
+        tokenScore.invoke(owner, "burn", tokenId);
+        assertNull(tokenScore.call("tokenURI", tokenId));
+
+        tokenScore = sm.deploy(owner, HSP721HexURIToken.class, name, symbol);
+        tokenScore.invoke(owner, "setBaseURI", "https://nft.havah.io/");
+        tokenScore.invoke(owner, "mint", tokenId, "");
+        assertEquals("https://nft.havah.io/ff", tokenScore.call("tokenURI", tokenId));
+    }
+
+    private BigInteger[] mintTokens(int count) {
+        BigInteger[] tokenIds = new BigInteger[count];
+        for (int i = 0; i < count; i++) {
+            tokenIds[i] = mintToken();
+        }
+        return tokenIds;
+    }
+
+    private void assertOwnedBy(Account account, BigInteger... tokenIds) {
+        assertEquals(tokenIds.length, tokenScore.call("balanceOf", account.getAddress()));
+        for (BigInteger tokenId : tokenIds) {
+            assertEquals(account.getAddress(), tokenScore.call("ownerOf", tokenId));
+        }
+    }
+
+    @Test
+    void transferFromBatch() throws Exception {
+        for (var tokenClass : new Class<?>[]{HSP721BasicToken.class, HSP721IndexedToken.class, HSP721PackedToken.class}) {
+            tokenScore = sm.deploy(owner, tokenClass, name, symbol);
+            var alice = sm.createAccount();
+            var bob = sm.createAccount();
+            BigInteger[] tokenIds = mintTokens(4);
+            BigInteger[] batch = {tokenIds[0], tokenIds[2]};
+
+            // empty batches and repeated tokens are rejected in every layout, even to the owner itself
+            assertThrows(AssertionError.class, () -> tokenScore.invoke(owner, "transferFromBatch",
+                    owner.getAddress(), bob.getAddress(), new BigInteger[0]));
+            assertThrows(AssertionError.class, () -> tokenScore.invoke(owner, "transferFromBatch",
+                    owner.getAddress(), owner.getAddress(), new BigInteger[]{tokenIds[1], tokenIds[1]}));
+            assertThrows(AssertionError.class, () -> tokenScore.invoke(owner, "transferFromBatch",
+                    owner.getAddress(), bob.getAddress(), new BigInteger[]{tokenIds[1], tokenIds[3], tokenIds[1]}));
+            tokenScore.invoke(owner, "transferFromBatch",
+                    owner.getAddress(), owner.getAddress(), new BigInteger[]{tokenIds[1], tokenIds[3]});
+            assertOwnedBy(owner, tokenIds);
+
+            // an approval of a single token doesn't cover the batch
+            approveToken(owner, alice.getAddress(), tokenIds[0]);
+            assertThrows(AssertionError.class, () ->
+                    tokenScore.invoke(alice, "transferFromBatch", owner.getAddress(), bob.getAddress(), batch));
+            approveToken(owner, alice.getAddress(), tokenIds[2]);
+            tokenScore.invoke(alice, "transferFromBatch", owner.getAddress(), bob.getAddress(), batch);
+            assertOwnedBy(bob, batch);
+            assertOwnedBy(owner, tokenIds[1], tokenIds[3]);
+            assertEquals(ZERO_ADDRESS, tokenScore.call("getApproved", tokenIds[0]));
+
+            // a batch with a token of another owner fails as a whole
+            assertThrows(AssertionError.class, () -> tokenScore.invoke(owner, "transferFromBatch",
+                    owner.getAddress(), alice.getAddress(), new BigInteger[]{tokenIds[1], tokenIds[0]}));
+            assertThrows(AssertionError.class, () -> tokenScore.invoke(owner, "transferFromBatch",
+                    owner.getAddress(), ZERO_ADDRESS, new BigInteger[]{tokenIds[1]}));
+            assertOwnedBy(owner, tokenIds[1], tokenIds[3]);
+
+            // an operator moves the rest, emptying the list of the owner
+            setApprovalForAll(owner, alice.getAddress(), true);
+            tokenScore.invoke(alice, "transferFromBatch", owner.getAddress(), alice.getAddress(),
+                    new BigInteger[]{tokenIds[1], tokenIds[3]});
+            assertOwnedBy(alice, tokenIds[1], tokenIds[3]);
+            assertEquals(0, tokenScore.call("balanceOf", owner.getAddress()));
+            assertEquals(4, tokenScore.call("totalSupply"));
+        }
+    }
+
+    @Test
+    void safeTransferFromBatch() throws Exception {
+        Score receiver = sm.deploy(owner, HSP721SampleReceiver.class);
+        BigInteger[] tokenIds = mintTokens(3);
+        var alice = sm.createAccount();
+
+        tokenScore.invoke(owner, "safeTransferFromBatch", owner.getAddress(), alice.getAddress(),
+                new BigInteger[]{tokenIds[0]}, new byte[0]);
+        assertOwnedBy(alice, tokenIds[0]);
+
+        receiver.invoke(owner, "setAccept", false);
+        assertThrows(AssertionError.class, () -> tokenScore.invoke(owner, "safeTransferFromBatch",
+                owner.getAddress(), receiver.getAddress(), new BigInteger[]{tokenIds[1], tokenIds[2]}, new byte[0]));
+        receiver.invoke(owner, "setAccept", true);
+        tokenScore.invoke(owner, "safeTransferFromBatch",
+                owner.getAddress(), receiver.getAddress(), new BigInteger[]{tokenIds[1], tokenIds[2]}, new byte[0]);
+        assertEquals(receiver.getAddress(), tokenScore.call("ownerOf", tokenIds[2]));
+        // called once per token
+        assertEquals(2, receiver.call("received"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void bulkViews() throws Exception {
+        for (var tokenClass : new Class<?>[]{HSP721BasicToken.class, HSP721IndexedToken.class, HSP721PackedToken.class}) {
+            tokenScore = sm.deploy(owner, tokenClass, name, symbol);
+            var alice = sm.createAccount();
+            BigInteger[] tokenIds = mintTokens(7);
+            tokenScore.invoke(owner, "transferFrom", owner.getAddress(), alice.getAddress(), tokenIds[3]);
+
+            List<BigInteger> owned = new ArrayList<>();
+            for (int offset = 0; offset < 6; offset += 4) {
+                var page = (BigInteger[]) tokenScore.call("tokensOfOwner", owner.getAddress(), offset, 4);
+                for (int i = 0; i < page.length; i++) {
+                    assertEquals(tokenScore.call("tokenOfOwnerByIndex", owner.getAddress(), offset + i), page[i]);
+                }
+                owned.addAll(List.of(page));
+            }
+            assertEquals(6, owned.size());
+            assertEquals(Set.of(tokenIds[0], tokenIds[1], tokenIds[2], tokenIds[4], tokenIds[5], tokenIds[6]),
+                    new HashSet<>(owned));
+            assertArrayEquals(new BigInteger[]{tokenIds[3]},
+                    (BigInteger[]) tokenScore.call("tokensOfOwner", alice.getAddress(), 0, 10));
+            assertEquals(0, ((BigInteger[]) tokenScore.call("tokensOfOwner", sm.createAccount().getAddress(), 0, 10)).length);
+
+            var all = (BigInteger[]) tokenScore.call("tokens", 0, Pages.MAX_PAGE_SIZE);
+            assertEquals(7, all.length);
+            assertEquals(tokenScore.call("tokenByIndex", 6), all[6]);
+            assertEquals(0, ((BigInteger[]) tokenScore.call("tokens", 7, 10)).length);
+            var page = (List<Map<String, Object>>) tokenScore.call("tokensWithOwners", 3, 2);
+            assertEquals(2, page.size());
+            for (var entry : page) {
+                assertEquals(tokenScore.call("ownerOf", entry.get("tokenId")), entry.get("owner"));
+            }
+
+            assertThrows(AssertionError.class, () -> tokenScore.call("tokens", 0, Pages.MAX_PAGE_SIZE + 1));
+            assertThrows(AssertionError.class, () -> tokenScore.call("tokens", -1, 10));
+            assertThrows(AssertionError.class, () -> tokenScore.call("tokensOfOwner", owner.getAddress(), 0, 0));
+        }
+    }
+
+    @Test
+    void packedTokenRecord() throws Exception {
+        tokenScore = sm.deploy(owner, HSP721PackedToken.class, name, symbol);
+        var profiler = new StorageProfiler(tokenScore);
+        var alice = sm.createAccount();
+        var bob = sm.createAccount();
+        var carol = sm.createAccount();
+        BigInteger[] tokenIds = mintTokens(3);
+        assertEquals(3, tokenScore.call("totalSupply"));
+        assertOwnedBy(owner, tokenIds);
+
+        // the approval lives in the same record, so both transfers write it once
+        // (the last tokens are moved to new holders to keep the updates of the token lists alike)
+        var plain = profiler.invoke(owner, "transferFrom", owner.getAddress(), bob.getAddress(), tokenIds[2]);
+        approveToken(owner, alice.getAddress(), tokenIds[1]);
+        var approved = profiler.invoke(alice, "transferFrom", owner.getAddress(), carol.getAddress(), tokenIds[1]);
+        assertEquals(plain.getSets(), approved.getSets());
+        assertEquals(ZERO_ADDRESS, tokenScore.call("getApproved", tokenIds[1]));
+        assertOwnedBy(bob, tokenIds[2]);
+        assertOwnedBy(carol, tokenIds[1]);
+        assertThrows(AssertionError.class, () ->
+                tokenScore.invoke(alice, "transferFrom", carol.getAddress(), alice.getAddress(), tokenIds[1]));
+
+        // approving the zero address removes the approval
+        approveToken(owner, alice.getAddress(), tokenIds[0]);
+        tokenScore.invoke(owner, "approve", ZERO_ADDRESS, tokenIds[0]);
+        assertEquals(ZERO_ADDRESS, tokenScore.call("getApproved", tokenIds[0]));
+
+        tokenScore.invoke(bob, "burn", tokenIds[2]);
+        assertEquals(2, tokenScore.call("totalSupply"));
+        assertThrows(AssertionError.class, () -> tokenScore.call("ownerOf", tokenIds[2]));
+        assertEquals(ZERO_ADDRESS, tokenScore.call("getApproved", tokenIds[2]));
+        assertEquals(Set.of(tokenIds[0], tokenIds[1]), Set.of((BigInteger[]) tokenScore.call("tokens", 0, 10)));
+    }
+
+    @Test
+    void transferWithoutApproval() {
+        var profiler = new StorageProfiler(tokenScore);
+        var alice = sm.createAccount();
+        var bob = sm.createAccount();
+        var carol = sm.createAccount();
+        BigInteger[] tokenIds = mintTokens(3);
+
+        // the approval entry is written only if the token had one
+        // (the last tokens are moved to new holders to keep the updates of the token lists alike)
+        var plain = profiler.invoke(owner, "transferFrom", owner.getAddress(), bob.getAddress(), tokenIds[2]);
+        approveToken(owner, alice.getAddress(), tokenIds[1]);
+        var approved = profiler.invoke(alice, "transferFrom", owner.getAddress(), carol.getAddress(), tokenIds[1]);
+        assertEquals(plain.getSets() + 1, approved.getSets());
+        assertEquals(ZERO_ADDRESS, tokenScore.call("getApproved", tokenIds[1]));
+    }
+
+    @Test
+    void mintBatch() throws Exception {
+        for (var tokenClass : new Class<?>[]{HSP721MintBurn.class, HSP721BatchToken.class}) {
+            tokenScore = sm.deploy(owner, tokenClass, name, symbol);
+            var tokenSpy = (HSP721MintBurn) spy(tokenScore.getInstance());
+            tokenScore.setInstance(tokenSpy);
+            var alice = sm.createAccount();
+            var bob = sm.createAccount();
+            Address[] to = {alice.getAddress(), alice.getAddress(), bob.getAddress(), alice.getAddress(), alice.getAddress()};
+            BigInteger[] tokenIds = new BigInteger[to.length];
+            for (int i = 0; i < tokenIds.length; i++) {
+                tokenIds[i] = BigInteger.valueOf(i + 1);
+            }
+
+            // tokens without their own URI need the base URI
+            assertThrows(AssertionError.class, () -> tokenScore.invoke(owner, "mintBatch", to, tokenIds, null));
+            tokenScore.invoke(owner, "setBaseURI", "https://nft.havah.io/");
+            assertThrows(AssertionError.class, () -> tokenScore.invoke(alice, "mintBatch", to, tokenIds, null));
+            assertThrows(AssertionError.class, () -> tokenScore.invoke(owner, "mintBatch",
+                    to, new BigInteger[]{tokenIds[0]}, null));
+            tokenScore.invoke(owner, "mintBatch", to, tokenIds, null);
+            assertOwnedBy(alice, tokenIds[0], tokenIds[1], tokenIds[3], tokenIds[4]);
+            assertOwnedBy(bob, tokenIds[2]);
+            assertEquals(tokenIds[3], tokenScore.call("tokenOfOwnerByIndex", alice.getAddress(), 2));
+            assertEquals(5, tokenScore.call("totalSupply"));
+            assertEquals("https://nft.havah.io/5", tokenScore.call("tokenURI", tokenIds[4]));
+
+            verify(tokenSpy).Transfer(ZERO_ADDRESS, bob.getAddress(), tokenIds[2]);
+            if (tokenClass == HSP721BatchToken.class) {
+                // runs of consecutive IDs of the same recipient
+                verify(tokenSpy).ConsecutiveTransfer(ZERO_ADDRESS, alice.getAddress(), tokenIds[0], tokenIds[1]);
+                verify(tokenSpy).ConsecutiveTransfer(ZERO_ADDRESS, alice.getAddress(), tokenIds[3], tokenIds[4]);
+                verify(tokenSpy, never()).Transfer(ZERO_ADDRESS, alice.getAddress(), tokenIds[0]);
+            } else {
+                verify(tokenSpy).Transfer(ZERO_ADDRESS, alice.getAddress(), tokenIds[4]);
+                verify(tokenSpy, never()).ConsecutiveTransfer(any(), any(), any(), any());
+            }
+
+            // the batch fails as a whole on an existing or a repeated token
+            var six = BigInteger.valueOf(6);
+            assertThrows(AssertionError.class, () -> tokenScore.invoke(owner, "mintBatch",
+                    new Address[]{bob.getAddress(), bob.getAddress()}, new BigInteger[]{six, tokenIds[0]}, null));
+            assertThrows(AssertionError.class, () -> tokenScore.invoke(owner, "mintBatch",
+                    new Address[]{bob.getAddress(), alice.getAddress()}, new BigInteger[]{six, six}, null));
+            assertThrows(AssertionError.class, () -> tokenScore.invoke(owner, "mintBatch",
+                    new Address[]{ZERO_ADDRESS}, new BigInteger[]{six}, null));
+            assertOwnedBy(bob, tokenIds[2]);
+            assertEquals(5, tokenScore.call("totalSupply"));
+
+            var seven = BigInteger.valueOf(7);
+            tokenScore.invoke(owner, "mintBatch", new Address[]{bob.getAddress(), bob.getAddress()},
+                    new BigInteger[]{six, seven}, new String[]{"ipfs://six", ""});
+            assertEquals("ipfs://six", tokenScore.call("tokenURI", six));
+            assertEquals("https://nft.havah.io/7", tokenScore.call("tokenURI", seven));
+            assertOwnedBy(bob, tokenIds[2], six, seven);
+        }
+    }
+
+    @Test
+    void ranges() throws Exception {
+        for (var tokenClass : new Class<?>[]{HSP721MintBurn.class, HSP721BatchToken.class}) {
+            tokenScore = sm.deploy(owner, tokenClass, name, symbol);
+            tokenScore.invoke(owner, "setBaseURI", "https://nft.havah.io/");
+            var alice = sm.createAccount();
+            var bob = sm.createAccount();
+            Address[] to = new Address[10];
+            BigInteger[] tokenIds = new BigInteger[to.length];
+            for (int i = 0; i < tokenIds.length; i++) {
+                to[i] = owner.getAddress();
+                tokenIds[i] = BigInteger.valueOf(i + 1);
+            }
+            tokenScore.invoke(owner, "mintBatch", to, tokenIds, null);
+            approveToken(owner, bob.getAddress(), tokenIds[3]);
+
+            // 3..7 to alice, then a range crossing the tokens of both fails as a whole
+            tokenScore.invoke(owner, "transferRange", owner.getAddress(), alice.getAddress(), tokenIds[2], 5);
+            assertOwnedBy(alice, tokenIds[2], tokenIds[3], tokenIds[4], tokenIds[5], tokenIds[6]);
+            assertOwnedBy(owner, tokenIds[0], tokenIds[1], tokenIds[7], tokenIds[8], tokenIds[9]);
+            assertEquals(ZERO_ADDRESS, tokenScore.call("getApproved", tokenIds[3]));
+            assertThrows(AssertionError.class, () -> tokenScore.invoke(owner, "transferRange",
+                    owner.getAddress(), bob.getAddress(), tokenIds[0], 3));
+            assertThrows(AssertionError.class, () -> tokenScore.invoke(bob, "transferRange",
+                    alice.getAddress(), bob.getAddress(), tokenIds[2], 1));
+            assertThrows(AssertionError.class, () -> tokenScore.invoke(owner, "transferRange",
+                    owner.getAddress(), bob.getAddress(), tokenIds[0], 0));
+
+            assertThrows(AssertionError.class, () -> tokenScore.invoke(alice, "burnRange", tokenIds[6], 2));
+            approveToken(alice, bob.getAddress(), tokenIds[4]);
+            tokenScore.invoke(alice, "burnRange", tokenIds[3], 3);
+            assertOwnedBy(alice, tokenIds[2], tokenIds[6]);
+            assertEquals(7, tokenScore.call("totalSupply"));
+            assertThrows(AssertionError.class, () -> tokenScore.call("ownerOf", tokenIds[4]));
+            assertEquals(ZERO_ADDRESS, tokenScore.call("getApproved", tokenIds[4]));
+            assertNull(tokenScore.call("tokenURI", tokenIds[4]));
+
+            // the whole list of the owner, leaving it empty
+            tokenScore.invoke(alice, "burnRange", tokenIds[2], 1);
+            tokenScore.invoke(alice, "burnRange", tokenIds[6], 1);
+            tokenScore.invoke(owner, "burnRange", tokenIds[7], 3);
+            assertOwnedBy(alice);
+            assertOwnedBy(owner, tokenIds[0], tokenIds[1]);
+            assertEquals(tokenIds[1], tokenScore.call("tokenOfOwnerByIndex", owner.getAddress(), 1));
+            assertEquals(2, tokenScore.call("totalSupply"));
+        }
+    }
+}
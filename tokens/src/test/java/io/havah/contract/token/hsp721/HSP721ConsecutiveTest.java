@@ -0,0 +1,214 @@
+/*
+ * Copyright 2022 HAVAH Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.havah.contract.token.hsp721;
+
+import com.iconloop.score.test.Account;
+import com.iconloop.score.test.Score;
+import com.iconloop.score.test.ServiceManager;
+import com.iconloop.score.test.TestBase;
+import io.havah.contract.test.StorageProfiler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import score.Address;
+import score.Context;
+import score.annotation.External;
+
+import java.math.BigInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HSP721ConsecutiveTest extends TestBase {
+    private static final Address ZERO_ADDRESS = new Address(new byte[Address.LENGTH]);
+    private static final String name = "MyHSP721Drop";
+    private static final String symbol = "DROP";
+
+    private static final ServiceManager sm = getServiceManager();
+    private static final Account owner = sm.createAccount();
+    private Score tokenScore;
+
+    public static class HSP721ConsecutiveToken extends HSP721Consecutive {
+        public HSP721ConsecutiveToken(String _name, String _symbol) {
+            super(_name, _symbol);
+        }
+
+        @External
+        public void mintConsecutive(Address _to, int _quantity) {
+            // simple access control - only the contract owner can mint new token
+            Context.require(Context.getCaller().equals(Context.getOwner()));
+            super._mintConsecutive(_to, _quantity);
+        }
+
+        @External
+        public void burn(BigInteger _tokenId) {
+            // simple access control - only the owner of token can burn it
+            Address owner = ownerOf(_tokenId);
+            Context.require(Context.getCaller().equals(owner));
+            super._burn(_tokenId);
+        }
+    }
+
+    @BeforeEach
+    public void setup() throws Exception {
+        tokenScore = sm.deploy(owner, HSP721ConsecutiveToken.class, name, symbol);
+    }
+
+    private static BigInteger id(int value) {
+        return BigInteger.valueOf(value);
+    }
+
+    private void assertOwners(Address expected, int from, int to) {
+        for (int i = from; i <= to; i++) {
+            assertEquals(expected, tokenScore.call("ownerOf", id(i)));
+        }
+    }
+
+    private void assertEnumeration(Account... holders) {
+        int supply = (int) tokenScore.call("totalSupply");
+        int total = 0;
+        for (Account holder : holders) {
+            int balance = (int) tokenScore.call("balanceOf", holder.getAddress());
+            for (int i = 0; i < balance; i++) {
+                BigInteger tokenId = (BigInteger) tokenScore.call("tokenOfOwnerByIndex", holder.getAddress(), i);
+                assertEquals(holder.getAddress(), tokenScore.call("ownerOf", tokenId));
+            }
+            total += balance;
+        }
+        assertEquals(supply, total);
+        for (int i = 0; i < supply; i++) {
+            BigInteger tokenId = (BigInteger) tokenScore.call("tokenByIndex", i);
+            assertNotNull(tokenScore.call("ownerOf", tokenId));
+        }
+    }
+
+    @Test
+    void mintConsecutive() {
+        var alice = sm.createAccount();
+        tokenScore.invoke(owner, "mintConsecutive", owner.getAddress(), 10);
+        tokenScore.invoke(owner, "mintConsecutive", alice.getAddress(), 5);
+
+        assertEquals(15, tokenScore.call("totalSupply"));
+        assertEquals(10, tokenScore.call("balanceOf", owner.getAddress()));
+        assertEquals(5, tokenScore.call("balanceOf", alice.getAddress()));
+        assertOwners(owner.getAddress(), 1, 10);
+        assertOwners(alice.getAddress(), 11, 15);
+        assertEquals(id(1), tokenScore.call("tokenByIndex", 0));
+        assertEquals(id(15), tokenScore.call("tokenByIndex", 14));
+        assertEquals(id(13), tokenScore.call("tokenOfOwnerByIndex", alice.getAddress(), 2));
+        assertThrows(AssertionError.class, () -> tokenScore.call("ownerOf", id(16)));
+        assertThrows(AssertionError.class, () -> tokenScore.call("ownerOf", id(0)));
+
+        // only the contract owner can mint, and the quantity is bounded
+        assertThrows(AssertionError.class, () ->
+                tokenScore.invoke(alice, "mintConsecutive", alice.getAddress(), 1));
+        assertThrows(AssertionError.class, () ->
+                tokenScore.invoke(owner, "mintConsecutive", alice.getAddress(), 0));
+        assertThrows(AssertionError.class, () ->
+                tokenScore.invoke(owner, "mintConsecutive", alice.getAddress(), HSP721Consecutive.MAX_MINT_QUANTITY + 1));
+    }
+
+    @Test
+    void transferSplitsRun() {
+        var alice = sm.createAccount();
+        var bob = sm.createAccount();
+        tokenScore.invoke(owner, "mintConsecutive", owner.getAddress(), 10);
+
+        tokenScore.invoke(owner, "transferFrom", owner.getAddress(), alice.getAddress(), id(4));
+        assertOwners(owner.getAddress(), 1, 3);
+        assertEquals(alice.getAddress(), tokenScore.call("ownerOf", id(4)));
+        assertOwners(owner.getAddress(), 5, 10);
+
+        // the last token of a run
+        tokenScore.invoke(owner, "transferFrom", owner.getAddress(), bob.getAddress(), id(10));
+        assertEquals(bob.getAddress(), tokenScore.call("ownerOf", id(10)));
+        assertOwners(owner.getAddress(), 5, 9);
+
+        assertEquals(8, tokenScore.call("balanceOf", owner.getAddress()));
+        assertEquals(1, tokenScore.call("balanceOf", alice.getAddress()));
+        assertEquals(1, tokenScore.call("balanceOf", bob.getAddress()));
+        assertEquals(id(5), tokenScore.call("tokenOfOwnerByIndex", owner.getAddress(), 3));
+        assertEnumeration(owner, alice, bob);
+
+        // not the owner
+        assertThrows(AssertionError.class, () ->
+                tokenScore.invoke(alice, "transferFrom", owner.getAddress(), alice.getAddress(), id(5)));
+        assertThrows(AssertionError.class, () ->
+                tokenScore.invoke(owner, "transferFrom", alice.getAddress(), owner.getAddress(), id(4)));
+    }
+
+    @Test
+    void approve() {
+        var alice = sm.createAccount();
+        var bob = sm.createAccount();
+        tokenScore.invoke(owner, "mintConsecutive", owner.getAddress(), 3);
+
+        tokenScore.invoke(owner, "approve", alice.getAddress(), id(2));
+        assertEquals(alice.getAddress(), tokenScore.call("getApproved", id(2)));
+        tokenScore.invoke(alice, "transferFrom", owner.getAddress(), bob.getAddress(), id(2));
+        assertEquals(bob.getAddress(), tokenScore.call("ownerOf", id(2)));
+        assertEquals(ZERO_ADDRESS, tokenScore.call("getApproved", id(2)));
+
+        tokenScore.invoke(owner, "setApprovalForAll", alice.getAddress(), true);
+        tokenScore.invoke(alice, "safeTransferFrom", owner.getAddress(), bob.getAddress(), id(3), "data".getBytes());
+        assertEquals(bob.getAddress(), tokenScore.call("ownerOf", id(3)));
+        assertEquals(owner.getAddress(), tokenScore.call("ownerOf", id(1)));
+    }
+
+    @Test
+    void transferWithoutApproval() {
+        var profiler = new StorageProfiler(tokenScore);
+        var alice = sm.createAccount();
+        var bob = sm.createAccount();
+        var carol = sm.createAccount();
+        tokenScore.invoke(owner, "mintConsecutive", owner.getAddress(), 6);
+
+        // the approval entry is written only if the token had one
+        var plain = profiler.invoke(owner, "transferFrom", owner.getAddress(), bob.getAddress(), id(2));
+        tokenScore.invoke(owner, "approve", alice.getAddress(), id(5));
+        var approved = profiler.invoke(alice, "transferFrom", owner.getAddress(), carol.getAddress(), id(5));
+        assertEquals(plain.getSets() + 1, approved.getSets());
+        assertEquals(ZERO_ADDRESS, tokenScore.call("getApproved", id(5)));
+
+        tokenScore.invoke(owner, "approve", alice.getAddress(), id(6));
+        tokenScore.invoke(owner, "burn", id(6));
+        assertEquals(ZERO_ADDRESS, tokenScore.call("getApproved", id(6)));
+    }
+
+    @Test
+    void burn() {
+        var alice = sm.createAccount();
+        tokenScore.invoke(owner, "mintConsecutive", owner.getAddress(), 5);
+        tokenScore.invoke(owner, "mintConsecutive", alice.getAddress(), 5);
+
+        tokenScore.invoke(owner, "burn", id(1));
+        tokenScore.invoke(owner, "burn", id(3));
+        tokenScore.invoke(alice, "burn", id(10));
+        assertThrows(AssertionError.class, () -> tokenScore.call("ownerOf", id(1)));
+        assertThrows(AssertionError.class, () -> tokenScore.call("ownerOf", id(3)));
+        assertThrows(AssertionError.class, () -> tokenScore.invoke(owner, "burn", id(3)));
+        assertEquals(owner.getAddress(), tokenScore.call("ownerOf", id(2)));
+        assertOwners(owner.getAddress(), 4, 5);
+        assertOwners(alice.getAddress(), 6, 9);
+
+        assertEquals(7, tokenScore.call("totalSupply"));
+        assertEquals(3, tokenScore.call("balanceOf", owner.getAddress()));
+        assertEquals(4, tokenScore.call("balanceOf", alice.getAddress()));
+        assertEquals(id(2), tokenScore.call("tokenByIndex", 0));
+        assertEquals(id(4), tokenScore.call("tokenByIndex", 1));
+        assertEquals(id(9), tokenScore.call("tokenByIndex", 6));
+        assertEnumeration(owner, alice);
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright 2022 HAVAH Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.havah.contract.token.hsp721;
+
+import com.iconloop.score.test.Account;
+import com.iconloop.score.test.Score;
+import com.iconloop.score.test.ServiceManager;
+import com.iconloop.score.test.TestBase;
+import io.havah.contract.test.StorageProfiler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import score.Address;
+import score.Context;
+import score.annotation.External;
+import score.annotation.Optional;
+
+import java.math.BigInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HSP721LiteTest extends TestBase {
+    private static final Address ZERO_ADDRESS = new Address(new byte[Address.LENGTH]);
+    private static final String name = "MyHSP721Lite";
+    private static final String symbol = "LNFT";
+
+    private static final ServiceManager sm = getServiceManager();
+    private static final Account owner = sm.createAccount();
+    private Score tokenScore;
+    private int nextTokenId;
+
+    public static class HSP721LiteToken extends HSP721Lite {
+        public HSP721LiteToken(String _name, String _symbol) {
+            super(_name, _symbol);
+        }
+
+        @External
+        public void mint(BigInteger _tokenId, @Optional String _uri) {
+            // simple access control - only the contract owner can mint new token
+            Context.require(Context.getCaller().equals(Context.getOwner()));
+            super._mint(Context.getCaller(), _tokenId);
+            if (_uri != null) {
+                _setTokenURI(_tokenId, _uri);
+            }
+        }
+
+        @External
+        public void setBaseURI(String _uri) {
+            Context.require(Context.getCaller().equals(Context.getOwner()));
+            _setBaseURI(_uri);
+        }
+
+        @External
+        public void burn(BigInteger _tokenId) {
+            // simple access control - only the owner of token can burn it
+            Address owner = ownerOf(_tokenId);
+            Context.require(Context.getCaller().equals(owner));
+            super._burn(_tokenId);
+        }
+    }
+
+    @BeforeEach
+    public void setup() throws Exception {
+        tokenScore = sm.deploy(owner, HSP721LiteToken.class, name, symbol);
+        nextTokenId = 1;
+    }
+
+    private BigInteger mintToken() {
+        var tokenId = BigInteger.valueOf(nextTokenId++);
+        tokenScore.invoke(owner, "mint", tokenId, "https://nft.havah.io/" + tokenId);
+        return tokenId;
+    }
+
+    @Test
+    void metadata() {
+        assertEquals(name, tokenScore.call("name"));
+        assertEquals(symbol, tokenScore.call("symbol"));
+        var tokenId = mintToken();
+        assertEquals("https://nft.havah.io/" + tokenId, tokenScore.call("tokenURI", tokenId));
+    }
+
+    @Test
+    void baseURI() {
+        var tokenId = BigInteger.valueOf(nextTokenId++);
+        tokenScore.invoke(owner, "mint", tokenId, null);
+        assertNull(tokenScore.call("tokenURI", tokenId));
+
+        tokenScore.invoke(owner, "setBaseURI", "https://nft.havah.io/");
+        assertEquals("https://nft.havah.io/" + tokenId, tokenScore.call("tokenURI", tokenId));
+        // the URI of the token itself takes precedence
+        var other = BigInteger.valueOf(nextTokenId++);
+        tokenScore.invoke(owner, "mint", other, "ipfs://other");
+        assertEquals("ipfs://other", tokenScore.call("tokenURI", other));
+        assertNull(tokenScore.call("tokenURI", BigInteger.valueOf(nextTokenId)));
+
+        tokenScore.invoke(owner, "burn", tokenId);
+        assertNull(tokenScore.call("tokenURI", tokenId));
+    }
+
+    @Test
+    void mint() {
+        var tokenId = mintToken();
+        mintToken();
+        assertEquals(2, tokenScore.call("balanceOf", owner.getAddress()));
+        assertEquals(owner.getAddress(), tokenScore.call("ownerOf", tokenId));
+        assertThrows(AssertionError.class, () ->
+                tokenScore.invoke(owner, "mint", tokenId, "uri"));
+        assertThrows(AssertionError.class, () ->
+                tokenScore.call("ownerOf", BigInteger.valueOf(nextTokenId)));
+    }
+
+    @Test
+    void transferFrom() {
+        var tokenId = mintToken();
+        var alice = sm.createAccount();
+        var bob = sm.createAccount();
+        assertThrows(AssertionError.class, () ->
+                tokenScore.invoke(alice, "transferFrom", owner.getAddress(), bob.getAddress(), tokenId));
+
+        tokenScore.invoke(owner, "approve", alice.getAddress(), tokenId);
+        assertEquals(alice.getAddress(), tokenScore.call("getApproved", tokenId));
+        tokenScore.invoke(alice, "transferFrom", owner.getAddress(), bob.getAddress(), tokenId);
+        assertEquals(bob.getAddress(), tokenScore.call("ownerOf", tokenId));
+        assertEquals(ZERO_ADDRESS, tokenScore.call("getApproved", tokenId));
+        assertEquals(0, tokenScore.call("balanceOf", owner.getAddress()));
+        assertEquals(1, tokenScore.call("balanceOf", bob.getAddress()));
+
+        tokenScore.invoke(bob, "setApprovalForAll", alice.getAddress(), true);
+        assertEquals(true, tokenScore.call("isApprovedForAll", bob.getAddress(), alice.getAddress()));
+        tokenScore.invoke(alice, "safeTransferFrom", bob.getAddress(), alice.getAddress(), tokenId, "data".getBytes());
+        assertEquals(alice.getAddress(), tokenScore.call("ownerOf", tokenId));
+        assertEquals(0, tokenScore.call("balanceOf", bob.getAddress()));
+        assertEquals(1, tokenScore.call("balanceOf", alice.getAddress()));
+    }
+
+    @Test
+    void transferWithoutApproval() {
+        var profiler = new StorageProfiler(tokenScore);
+        var alice = sm.createAccount();
+        var bob = sm.createAccount();
+        var carol = sm.createAccount();
+        var tokenId = mintToken();
+        var tokenId2 = mintToken();
+
+        // the approval entry is written only if the token had one
+        var plain = profiler.invoke(owner, "transferFrom", owner.getAddress(), bob.getAddress(), tokenId);
+        tokenScore.invoke(owner, "approve", alice.getAddress(), tokenId2);
+        var approved = profiler.invoke(alice, "transferFrom", owner.getAddress(), carol.getAddress(), tokenId2);
+        assertEquals(plain.getSets() + 1, approved.getSets());
+        assertEquals(ZERO_ADDRESS, tokenScore.call("getApproved", tokenId2));
+    }
+
+    @Test
+    void burn() {
+        var tokenId = mintToken();
+        var tokenId2 = mintToken();
+        var alice = sm.createAccount();
+        tokenScore.invoke(owner, "transferFrom", owner.getAddress(), alice.getAddress(), tokenId);
+        assertThrows(AssertionError.class, () ->
+                tokenScore.invoke(owner, "burn", tokenId));
+        tokenScore.invoke(alice, "burn", tokenId);
+        tokenScore.invoke(owner, "burn", tokenId2);
+        assertEquals(0, tokenScore.call("balanceOf", alice.getAddress()));
+        assertEquals(0, tokenScore.call("balanceOf", owner.getAddress()));
+        assertThrows(AssertionError.class, () ->
+                tokenScore.call("ownerOf", tokenId));
+    }
+}
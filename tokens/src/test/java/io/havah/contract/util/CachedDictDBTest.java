@@ -0,0 +1,112 @@
+/*
+ * Copyright 2022 HAVAH Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.havah.contract.util;
+
+import org.junit.jupiter.api.Test;
+import score.DictDB;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class CachedDictDBTest {
+
+    // a DictDB in memory, recording every access
+    static class CountingDictDB implements DictDB<String, Integer> {
+        final Map<String, Integer> values = new HashMap<>();
+        final List<String> reads = new ArrayList<>();
+        final List<String> writes = new ArrayList<>();
+
+        @Override
+        public void set(String key, Integer value) {
+            writes.add(key);
+            values.put(key, value);
+        }
+
+        @Override
+        public Integer get(String key) {
+            reads.add(key);
+            return values.get(key);
+        }
+
+        @Override
+        public Integer getOrDefault(String key, Integer defaultValue) {
+            Integer value = get(key);
+            return (value != null) ? value : defaultValue;
+        }
+    }
+
+    @Test
+    void readsEachKeyOnce() {
+        var db = new CountingDictDB();
+        db.values.put("a", 1);
+        var cache = new CachedDictDB<>(db);
+
+        assertEquals(1, cache.get("a"));
+        assertEquals(1, cache.getOrDefault("a", 0));
+        assertEquals(0, cache.getOrDefault("b", 0));
+        assertNull(cache.get("b"));
+        assertEquals(List.of("a", "b"), db.reads);
+
+        // a key set before being read is not loaded
+        cache.set("c", 3);
+        assertEquals(3, cache.get("c"));
+        assertEquals(List.of("a", "b"), db.reads);
+    }
+
+    @Test
+    void flushWritesLastValues() {
+        var db = new CountingDictDB();
+        db.values.put("a", 1);
+        var cache = new CachedDictDB<>(db);
+
+        cache.set("b", 2);
+        cache.set("a", cache.get("a") + 10);
+        cache.set("b", 20);
+        cache.set("a", null);
+        assertEquals(List.of(), db.writes);
+
+        cache.flush();
+        // once per key, in the order of the first modification
+        assertEquals(List.of("b", "a"), db.writes);
+        assertEquals(20, db.values.get("b"));
+        assertNull(db.values.get("a"));
+    }
+
+    @Test
+    void flushWithoutChanges() {
+        var db = new CountingDictDB();
+        db.values.put("a", 1);
+        var cache = new CachedDictDB<>(db);
+
+        cache.flush();
+        cache.get("a");
+        cache.flush();
+        assertEquals(List.of(), db.writes);
+
+        // a flushed cache is clean again
+        cache.set("a", 2);
+        cache.flush();
+        cache.flush();
+        assertEquals(List.of("a"), db.writes);
+        assertEquals(List.of("a"), db.reads);
+    }
+}
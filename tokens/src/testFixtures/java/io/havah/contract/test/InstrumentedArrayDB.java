@@ -0,0 +1,64 @@
+/*
+ * Copyright 2022 HAVAH Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.havah.contract.test;
+
+import score.ArrayDB;
+
+public class InstrumentedArrayDB<E> implements ArrayDB<E> {
+    private final ArrayDB<E> db;
+    private final StorageInstrumenter instrumenter;
+
+    public InstrumentedArrayDB(ArrayDB<E> db, StorageInstrumenter instrumenter) {
+        this.db = db;
+        this.instrumenter = instrumenter;
+    }
+
+    @Override
+    public void add(E value) {
+        instrumenter.write(null, value);
+        db.add(value);
+    }
+
+    @Override
+    public void set(int index, E value) {
+        instrumenter.write(db.get(index), value);
+        db.set(index, value);
+    }
+
+    @Override
+    public void removeLast() {
+        instrumenter.write(db.get(db.size() - 1), null);
+        db.removeLast();
+    }
+
+    @Override
+    public E get(int index) {
+        return instrumenter.read(db.get(index));
+    }
+
+    @Override
+    public int size() {
+        return instrumenter.read(db.size());
+    }
+
+    @Override
+    public E pop() {
+        E value = instrumenter.read(db.pop());
+        instrumenter.write(value, null);
+        return value;
+    }
+}
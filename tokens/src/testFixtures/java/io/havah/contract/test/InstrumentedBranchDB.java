@@ -0,0 +1,38 @@
+/*
+ * Copyright 2022 HAVAH Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.havah.contract.test;
+
+import score.BranchDB;
+
+/**
+ * Instruments the sub-DBs returned by {@link #at}; selecting a branch does not access the storage by itself.
+ */
+public class InstrumentedBranchDB<K, V> implements BranchDB<K, V> {
+    private final BranchDB<K, V> db;
+    private final StorageInstrumenter instrumenter;
+
+    public InstrumentedBranchDB(BranchDB<K, V> db, StorageInstrumenter instrumenter) {
+        this.db = db;
+        this.instrumenter = instrumenter;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V at(K key) {
+        return (V) instrumenter.wrap(db.at(key));
+    }
+}
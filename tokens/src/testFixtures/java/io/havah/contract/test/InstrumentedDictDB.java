@@ -0,0 +1,46 @@
+/*
+ * Copyright 2022 HAVAH Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.havah.contract.test;
+
+import score.DictDB;
+
+public class InstrumentedDictDB<K, V> implements DictDB<K, V> {
+    private final DictDB<K, V> db;
+    private final StorageInstrumenter instrumenter;
+
+    public InstrumentedDictDB(DictDB<K, V> db, StorageInstrumenter instrumenter) {
+        this.db = db;
+        this.instrumenter = instrumenter;
+    }
+
+    @Override
+    public void set(K key, V value) {
+        instrumenter.write(db.get(key), value);
+        db.set(key, value);
+    }
+
+    @Override
+    public V get(K key) {
+        return instrumenter.read(db.get(key));
+    }
+
+    @Override
+    public V getOrDefault(K key, V defaultValue) {
+        V value = get(key);
+        return (value != null) ? value : defaultValue;
+    }
+}
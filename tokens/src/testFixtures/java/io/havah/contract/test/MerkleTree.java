@@ -0,0 +1,67 @@
+/*
+ * Copyright 2022 HAVAH Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.havah.contract.test;
+
+import io.havah.contract.util.MerkleProof;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A Merkle tree built off-chain, to commit its root and to give the proofs to {@link MerkleProof#verify}.
+ * A node without a sibling at a level is carried up to the next level unchanged.
+ */
+public class MerkleTree {
+    // levels.get(0) is the leaves, and the last level is the root
+    private final List<byte[][]> levels = new ArrayList<>();
+
+    public MerkleTree(List<byte[]> leaves) {
+        if (leaves.isEmpty()) {
+            throw new IllegalArgumentException("no leaves");
+        }
+        byte[][] level = leaves.toArray(new byte[0][]);
+        levels.add(level);
+        while (level.length > 1) {
+            byte[][] parents = new byte[(level.length + 1) / 2][];
+            for (int i = 0; i < parents.length; i++) {
+                int left = i * 2;
+                parents[i] = (left + 1 < level.length) ? MerkleProof.hashPair(level[left], level[left + 1]) : level[left];
+            }
+            levels.add(parents);
+            level = parents;
+        }
+    }
+
+    public byte[] getRoot() {
+        return levels.get(levels.size() - 1)[0];
+    }
+
+    /**
+     * Returns the sibling hashes from the leaf at `index` up to the root.
+     */
+    public byte[][] getProof(int index) {
+        List<byte[]> proof = new ArrayList<>();
+        for (int i = 0; i < levels.size() - 1; i++) {
+            byte[][] level = levels.get(i);
+            int sibling = index ^ 1;
+            if (sibling < level.length) {
+                proof.add(level[sibling]);
+            }
+            index /= 2;
+        }
+        return proof.toArray(new byte[0][]);
+    }
+}
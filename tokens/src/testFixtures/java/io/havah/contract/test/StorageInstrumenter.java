@@ -0,0 +1,181 @@
+/*
+ * Copyright 2022 HAVAH Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.havah.contract.test;
+
+import score.Address;
+import score.ArrayDB;
+import score.BranchDB;
+import score.ByteArrayObjectWriter;
+import score.Context;
+import score.DictDB;
+import score.VarDB;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+/**
+ * Replaces the DB fields of a SCORE instance with instrumented wrappers that count into {@link #getStats()}.
+ * <p>
+ * The fields are found by walking the object graph of the instance, so the DBs held by helpers
+ * such as {@code EnumerableMap} are instrumented as well. Values read from a DB are walked in the same way,
+ * which covers the DBs of stored objects like {@code IntSet}.
+ */
+public class StorageInstrumenter {
+    private static final String[] SKIPPED_PACKAGES = {
+            "java.", "javax.", "jdk.", "sun.", "score.", "scorex.", "com.iconloop.",
+            "org.mockito.", "net.bytebuddy.", "org.junit."
+    };
+    private final StorageStats stats = new StorageStats();
+
+    /**
+     * Returns the live storage counters, which are never reset.
+     * Events are not counted here, see {@link StorageProfiler}.
+     */
+    public StorageStats getStats() {
+        return stats;
+    }
+
+    /**
+     * Instruments the DBs reachable from `root` and returns `root`.
+     */
+    public <T> T instrument(T root) {
+        walk(root, Collections.newSetFromMap(new IdentityHashMap<>()));
+        return root;
+    }
+
+    private void walk(Object obj, Set<Object> visited) {
+        if (obj == null || !visited.add(obj) || isSkipped(obj.getClass())) {
+            return;
+        }
+        for (Class<?> c = obj.getClass(); c != null && !isSkipped(c); c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers()) || field.isSynthetic() || field.getType().isPrimitive()) {
+                    continue;
+                }
+                try {
+                    field.setAccessible(true);
+                    Object value = field.get(obj);
+                    if (isInstrumented(value)) {
+                        continue;
+                    }
+                    Object wrapped = wrap(value);
+                    if (wrapped != value) {
+                        field.set(obj, wrapped);
+                    } else {
+                        walk(value, visited);
+                    }
+                } catch (IllegalAccessException e) {
+                    throw new IllegalStateException("Cannot instrument " + field, e);
+                }
+            }
+        }
+    }
+
+    private static boolean isSkipped(Class<?> c) {
+        if (c.isArray() || c.isEnum()) {
+            return true;
+        }
+        String name = c.getName();
+        for (String prefix : SKIPPED_PACKAGES) {
+            if (name.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isInstrumented(Object db) {
+        return db instanceof InstrumentedVarDB || db instanceof InstrumentedDictDB
+                || db instanceof InstrumentedArrayDB || db instanceof InstrumentedBranchDB;
+    }
+
+    /**
+     * Returns an instrumented wrapper of `db`, or `db` itself if it is not a DB or is already instrumented.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    Object wrap(Object db) {
+        if (isInstrumented(db)) {
+            return db;
+        }
+        if (db instanceof VarDB) {
+            return new InstrumentedVarDB((VarDB) db, this);
+        }
+        if (db instanceof DictDB) {
+            return new InstrumentedDictDB((DictDB) db, this);
+        }
+        if (db instanceof ArrayDB) {
+            return new InstrumentedArrayDB((ArrayDB) db, this);
+        }
+        if (db instanceof BranchDB) {
+            return new InstrumentedBranchDB((BranchDB) db, this);
+        }
+        return db;
+    }
+
+    <V> V read(V value) {
+        stats.read(sizeOf(value));
+        return instrument(value);
+    }
+
+    /**
+     * Records a write of `value` over `oldValue`, which is the stored value read without counting it.
+     */
+    void write(Object oldValue, Object value) {
+        int size = sizeOf(value);
+        stats.write(size);
+        stats.replace(sizeOf(oldValue), oldValue != null, size, value != null);
+    }
+
+    /**
+     * Returns the number of bytes of `value` as stored, or 0 for null.
+     */
+    static int sizeOf(Object value) {
+        if (value == null) {
+            return 0;
+        }
+        if (value instanceof byte[]) {
+            return ((byte[]) value).length;
+        }
+        if (value instanceof String) {
+            return ((String) value).getBytes(StandardCharsets.UTF_8).length;
+        }
+        if (value instanceof BigInteger) {
+            return ((BigInteger) value).toByteArray().length;
+        }
+        if (value instanceof Address) {
+            return Address.LENGTH;
+        }
+        if (value instanceof Boolean) {
+            return 1;
+        }
+        if (value instanceof Character) {
+            return BigInteger.valueOf((Character) value).toByteArray().length;
+        }
+        if (value instanceof Byte || value instanceof Short || value instanceof Integer || value instanceof Long) {
+            return BigInteger.valueOf(((Number) value).longValue()).toByteArray().length;
+        }
+        // custom types are stored with their writeObject method
+        ByteArrayObjectWriter writer = Context.newByteArrayObjectWriter("RLPn");
+        writer.write(value);
+        return writer.toByteArray().length;
+    }
+}
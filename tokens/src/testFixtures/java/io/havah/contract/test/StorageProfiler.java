@@ -0,0 +1,164 @@
+/*
+ * Copyright 2022 HAVAH Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.havah.contract.test;
+
+import com.iconloop.score.test.Account;
+import com.iconloop.score.test.Score;
+import org.mockito.Mockito;
+import org.mockito.invocation.Invocation;
+import score.annotation.EventLog;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Records the storage accesses and the events of each invocation of a deployed SCORE.
+ * <pre>
+ * var profiler = new StorageProfiler(tokenScore);
+ * var stats = profiler.invoke(owner, "transfer", alice.getAddress(), amount, null);
+ * assertEquals(2, stats.getSets());
+ * profiler.writeReport(Path.of("build/storage-report.json"));
+ * </pre>
+ * The events are counted from the invocations of the {@link EventLog} methods on a Mockito spy,
+ * so the instance of the SCORE is replaced with a spy unless it is one already.
+ * A spy created by the profiler is cleared after each invocation to keep long runs linear;
+ * a spy given by the test keeps its invocations for verification.
+ * Only the successful invocations are recorded.
+ */
+public class StorageProfiler {
+    private final Score score;
+    private final StorageInstrumenter instrumenter = new StorageInstrumenter();
+    // method => accumulated stats, in the order of first invocation
+    private final Map<String, StorageStats> totals = new LinkedHashMap<>();
+    private final Map<String, Integer> calls = new LinkedHashMap<>();
+    private final boolean ownsSpy;
+    private StorageStats lastStats;
+
+    public StorageProfiler(Score score) {
+        this.score = score;
+        Object instance = score.getInstance();
+        ownsSpy = !Mockito.mockingDetails(instance).isMock();
+        if (ownsSpy) {
+            instance = Mockito.spy(instance);
+            score.setInstance(instance);
+        }
+        instrumenter.instrument(instance);
+    }
+
+    /**
+     * Invokes a writable method and returns the stats of the invocation.
+     */
+    public StorageStats invoke(Account from, String method, Object... params) {
+        StorageStats before = snapshot();
+        score.invoke(from, method, params);
+        return record(method, before);
+    }
+
+    /**
+     * Calls a readonly method and returns its result; the stats are available from {@link #getLastStats()}.
+     */
+    public Object call(String method, Object... params) {
+        StorageStats before = snapshot();
+        Object result = score.call(method, params);
+        record(method, before);
+        return result;
+    }
+
+    public StorageStats getLastStats() {
+        return lastStats;
+    }
+
+    /**
+     * Returns the accumulated stats of `method`, or null if it has not been invoked.
+     */
+    public StorageStats getTotalStats(String method) {
+        return totals.get(method);
+    }
+
+    public int getCallCount(String method) {
+        return calls.getOrDefault(method, 0);
+    }
+
+    /**
+     * Discards the recorded stats of all methods.
+     */
+    public void reset() {
+        totals.clear();
+        calls.clear();
+        lastStats = null;
+    }
+
+    private StorageStats snapshot() {
+        StorageStats stats = instrumenter.getStats().copy();
+        stats.events = countEventInvocations();
+        return stats;
+    }
+
+    private StorageStats record(String method, StorageStats before) {
+        StorageStats after = instrumenter.getStats().copy();
+        after.events = countEventInvocations();
+        lastStats = after.minus(before);
+        if (ownsSpy) {
+            Mockito.clearInvocations(score.getInstance());
+        }
+        totals.computeIfAbsent(method, k -> new StorageStats()).add(lastStats);
+        calls.merge(method, 1, Integer::sum);
+        return lastStats;
+    }
+
+    private long countEventInvocations() {
+        long count = 0;
+        for (Invocation invocation : Mockito.mockingDetails(score.getInstance()).getInvocations()) {
+            if (invocation.getMethod().isAnnotationPresent(EventLog.class)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the report as a JSON object with one entry per method:
+     * <pre>
+     * {"methods":[{"method":"transfer","calls":2,"gets":8,"sets":4,"bytesRead":120,"bytesWritten":60,"events":2}]}
+     * </pre>
+     * The counters are the sums over all the recorded invocations of the method.
+     */
+    public String report() {
+        StringBuilder sb = new StringBuilder("{\"methods\":[");
+        String separator = "";
+        for (Map.Entry<String, StorageStats> entry : totals.entrySet()) {
+            sb.append(separator)
+                    .append("{\"method\":\"").append(entry.getKey())
+                    .append("\",\"calls\":").append(calls.get(entry.getKey()))
+                    .append(',').append(entry.getValue().toJsonMembers())
+                    .append('}');
+            separator = ",";
+        }
+        return sb.append("]}").toString();
+    }
+
+    public void writeReport(Path path) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        Files.write(path, report().getBytes(StandardCharsets.UTF_8));
+    }
+}
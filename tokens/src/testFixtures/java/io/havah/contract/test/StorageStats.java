@@ -0,0 +1,132 @@
+/*
+ * Copyright 2022 HAVAH Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.havah.contract.test;
+
+/**
+ * Storage access counters.
+ * Each call of a DB method counts as one get or one set, and the bytes are those of the stored values.
+ * The state footprint is the net change of the number of stored entries and of their bytes,
+ * where storing null deletes an entry.
+ */
+public class StorageStats {
+    long gets;
+    long sets;
+    long bytesRead;
+    long bytesWritten;
+    long events;
+    long entries;
+    long storedBytes;
+
+    public long getGets() {
+        return gets;
+    }
+
+    public long getSets() {
+        return sets;
+    }
+
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    public long getEvents() {
+        return events;
+    }
+
+    /**
+     * Returns the number of entries created minus the number of entries deleted.
+     */
+    public long getEntries() {
+        return entries;
+    }
+
+    /**
+     * Returns the change of the total bytes of the stored values.
+     */
+    public long getStoredBytes() {
+        return storedBytes;
+    }
+
+    void read(int bytes) {
+        gets++;
+        bytesRead += bytes;
+    }
+
+    void write(int bytes) {
+        sets++;
+        bytesWritten += bytes;
+    }
+
+    void replace(int oldBytes, boolean oldExists, int newBytes, boolean newExists) {
+        entries += (newExists ? 1 : 0) - (oldExists ? 1 : 0);
+        storedBytes += newBytes - oldBytes;
+    }
+
+    StorageStats copy() {
+        StorageStats copy = new StorageStats();
+        copy.add(this);
+        return copy;
+    }
+
+    StorageStats minus(StorageStats other) {
+        StorageStats diff = new StorageStats();
+        diff.gets = gets - other.gets;
+        diff.sets = sets - other.sets;
+        diff.bytesRead = bytesRead - other.bytesRead;
+        diff.bytesWritten = bytesWritten - other.bytesWritten;
+        diff.events = events - other.events;
+        diff.entries = entries - other.entries;
+        diff.storedBytes = storedBytes - other.storedBytes;
+        return diff;
+    }
+
+    void add(StorageStats other) {
+        gets += other.gets;
+        sets += other.sets;
+        bytesRead += other.bytesRead;
+        bytesWritten += other.bytesWritten;
+        events += other.events;
+        entries += other.entries;
+        storedBytes += other.storedBytes;
+    }
+
+    /**
+     * Returns the counters as the members of a JSON object, without the enclosing braces.
+     */
+    String toJsonMembers() {
+        return "\"gets\":" + gets +
+                ",\"sets\":" + sets +
+                ",\"bytesRead\":" + bytesRead +
+                ",\"bytesWritten\":" + bytesWritten +
+                ",\"events\":" + events +
+                ",\"entries\":" + entries +
+                ",\"storedBytes\":" + storedBytes;
+    }
+
+    public String toJson() {
+        return "{" + toJsonMembers() + "}";
+    }
+
+    @Override
+    public String toString() {
+        return toJson();
+    }
+}